@@ -1,5 +1,6 @@
 package com.ecommerce.gateway.filter;
 
+import org.springframework.http.HttpMethod;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
 
@@ -21,11 +22,7 @@ public class RouteValidator {
             "/api/users/register",
             "/api/users/login",
             "/api/users/refresh-token",
-
-            // Product Service - просмотр товаров (публичный доступ)
-            "/api/products",
-            "/api/products/search",
-            "/api/categories",
+            "/api/users/availability",
 
             // Actuator endpoints
             "/actuator",
@@ -36,12 +33,27 @@ public class RouteValidator {
             "/fallback"
     );
 
+    /**
+     * Каталог открыт только для чтения: GET и HEAD без JWT,
+     * изменяющие запросы (создание, резервы, удержания) требуют токен
+     */
+    public static final List<String> CATALOG_ENDPOINTS = List.of(
+            "/api/products",
+            "/api/categories"
+    );
+
+    /**
+     * POST endpoints каталога, которые только читают данные
+     */
+    public static final List<String> CATALOG_READ_ENDPOINTS = List.of(
+            "/api/products/batch",
+            "/api/products/stock/check"
+    );
+
     /**
      * Предикат для проверки, является ли endpoint открытым
      */
-    public Predicate<ServerHttpRequest> isSecured = request ->
-            OPEN_ENDPOINTS.stream()
-                    .noneMatch(uri -> request.getURI().getPath().startsWith(uri));
+    public Predicate<ServerHttpRequest> isSecured = request -> !isOpenEndpoint(request);
 
     /**
      * Проверяет, является ли endpoint открытым (не требует аутентификации)
@@ -52,22 +64,21 @@ public class RouteValidator {
         String path = request.getURI().getPath();
 
         // Проверяем точное совпадение или префикс
-        return OPEN_ENDPOINTS.stream().anyMatch(openPath -> {
-            // Для GET запросов на /api/products и /api/categories разрешаем доступ
-            if (path.equals(openPath) || path.startsWith(openPath + "/")) {
-                return true;
-            }
-            // Специальная обработка для GET запросов к товарам (с query параметрами)
-            if (openPath.equals("/api/products") && path.startsWith("/api/products")) {
-                String method = request.getMethod() != null ? request.getMethod().name() : "";
-                return method.equals("GET");
-            }
-            if (openPath.equals("/api/categories") && path.startsWith("/api/categories")) {
-                String method = request.getMethod() != null ? request.getMethod().name() : "";
-                return method.equals("GET");
-            }
+        if (OPEN_ENDPOINTS.stream().anyMatch(openPath -> matches(path, openPath))) {
+            return true;
+        }
+
+        if (CATALOG_ENDPOINTS.stream().noneMatch(catalogPath -> matches(path, catalogPath))) {
             return false;
-        });
+        }
+        HttpMethod method = request.getMethod();
+        if (HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method)) {
+            return true;
+        }
+        return HttpMethod.POST.equals(method) && CATALOG_READ_ENDPOINTS.contains(path);
     }
-}
 
+    private boolean matches(String path, String prefix) {
+        return path.equals(prefix) || path.startsWith(prefix + "/");
+    }
+}
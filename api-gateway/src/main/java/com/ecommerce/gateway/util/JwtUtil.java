@@ -1,6 +1,7 @@
 package com.ecommerce.gateway.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
@@ -10,6 +11,7 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -24,12 +26,19 @@ public class JwtUtil {
     @Value("${jwt.secret:mySecretKeyForJWTTokenGenerationAndValidation2025}")
     private String secret;
 
+    private static final String ROLE_PREFIX = "ROLE_";
+
     private SecretKey secretKey;
 
+    private JwtParser jwtParser;
+
     @PostConstruct
     public void init() {
-        // Создаем ключ из секрета
+        // Создаем ключ из секрета и переиспользуемый парсер
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(secretKey)
+                .build();
     }
 
     /**
@@ -67,6 +76,7 @@ public class JwtUtil {
 
     /**
      * Извлечение ролей пользователя из токена
+     * user-service кодирует роли компактно: "USER,ADMIN"
      */
     @SuppressWarnings("unchecked")
     public List<String> extractRoles(String token) {
@@ -77,6 +87,12 @@ public class JwtUtil {
             return (List<String>) roles;
         }
 
+        if (roles instanceof String encoded && !encoded.isBlank()) {
+            return Arrays.stream(encoded.split(","))
+                    .map(role -> role.startsWith(ROLE_PREFIX) ? role : ROLE_PREFIX + role)
+                    .toList();
+        }
+
         return List.of("ROLE_USER");
     }
 
@@ -93,11 +109,7 @@ public class JwtUtil {
      * Извлечение всех claims из токена
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return jwtParser.parseSignedClaims(token).getPayload();
     }
 
     /**
@@ -28,6 +28,15 @@ class RouteValidatorTest {
         assertTrue(routeValidator.isOpenEndpoint(request));
     }
 
+    @Test
+    void isOpenEndpoint_AvailabilityEndpoint_ReturnsTrue() {
+        MockServerHttpRequest request = MockServerHttpRequest
+                .get("/api/users/availability?username=john")
+                .build();
+
+        assertTrue(routeValidator.isOpenEndpoint(request));
+    }
+
     @Test
     void isOpenEndpoint_ActuatorHealth_ReturnsTrue() {
         MockServerHttpRequest request = MockServerHttpRequest
@@ -46,6 +55,51 @@ class RouteValidatorTest {
         assertTrue(routeValidator.isOpenEndpoint(request));
     }
 
+    @Test
+    void isOpenEndpoint_ProductSync_ReturnsFalse() {
+        MockServerHttpRequest request = MockServerHttpRequest
+                .post("/api/products/sync")
+                .build();
+
+        assertFalse(routeValidator.isOpenEndpoint(request));
+    }
+
+    @Test
+    void isOpenEndpoint_ProductImport_ReturnsFalse() {
+        MockServerHttpRequest request = MockServerHttpRequest
+                .post("/api/products/import")
+                .build();
+
+        assertFalse(routeValidator.isOpenEndpoint(request));
+    }
+
+    @Test
+    void isOpenEndpoint_HoldReservation_ReturnsFalse() {
+        MockServerHttpRequest request = MockServerHttpRequest
+                .post("/api/products/reservations")
+                .build();
+
+        assertFalse(routeValidator.isOpenEndpoint(request));
+    }
+
+    @Test
+    void isOpenEndpoint_ConfirmReservation_ReturnsFalse() {
+        MockServerHttpRequest request = MockServerHttpRequest
+                .post("/api/products/reservations/ORD-1/confirm")
+                .build();
+
+        assertFalse(routeValidator.isOpenEndpoint(request));
+    }
+
+    @Test
+    void isOpenEndpoint_ReleaseReservation_ReturnsFalse() {
+        MockServerHttpRequest request = MockServerHttpRequest
+                .post("/api/products/reservations/ORD-1/release")
+                .build();
+
+        assertFalse(routeValidator.isOpenEndpoint(request));
+    }
+
     @Test
     void isOpenEndpoint_GetCategories_ReturnsTrue() {
         MockServerHttpRequest request = MockServerHttpRequest
@@ -55,6 +109,78 @@ class RouteValidatorTest {
         assertTrue(routeValidator.isOpenEndpoint(request));
     }
 
+    @Test
+    void isOpenEndpoint_GetProductById_ReturnsTrue() {
+        MockServerHttpRequest request = MockServerHttpRequest
+                .get("/api/products/1")
+                .build();
+
+        assertTrue(routeValidator.isOpenEndpoint(request));
+    }
+
+    @Test
+    void isOpenEndpoint_ReserveBatch_ReturnsFalse() {
+        MockServerHttpRequest request = MockServerHttpRequest
+                .post("/api/products/reserve-batch")
+                .build();
+
+        assertFalse(routeValidator.isOpenEndpoint(request));
+    }
+
+    @Test
+    void isOpenEndpoint_ReleaseBatch_ReturnsFalse() {
+        MockServerHttpRequest request = MockServerHttpRequest
+                .post("/api/products/release-batch")
+                .build();
+
+        assertFalse(routeValidator.isOpenEndpoint(request));
+    }
+
+    @Test
+    void isOpenEndpoint_ReserveStock_ReturnsFalse() {
+        MockServerHttpRequest request = MockServerHttpRequest
+                .post("/api/products/1/reserve")
+                .build();
+
+        assertFalse(routeValidator.isOpenEndpoint(request));
+    }
+
+    @Test
+    void isOpenEndpoint_CreateProduct_ReturnsFalse() {
+        MockServerHttpRequest request = MockServerHttpRequest
+                .post("/api/products")
+                .build();
+
+        assertFalse(routeValidator.isOpenEndpoint(request));
+    }
+
+    @Test
+    void isOpenEndpoint_DeleteProduct_ReturnsFalse() {
+        MockServerHttpRequest request = MockServerHttpRequest
+                .delete("/api/products/1")
+                .build();
+
+        assertFalse(routeValidator.isOpenEndpoint(request));
+    }
+
+    @Test
+    void isOpenEndpoint_StockCheck_ReturnsTrue() {
+        MockServerHttpRequest request = MockServerHttpRequest
+                .post("/api/products/stock/check")
+                .build();
+
+        assertTrue(routeValidator.isOpenEndpoint(request));
+    }
+
+    @Test
+    void isOpenEndpoint_CreateCategory_ReturnsFalse() {
+        MockServerHttpRequest request = MockServerHttpRequest
+                .post("/api/categories")
+                .build();
+
+        assertFalse(routeValidator.isOpenEndpoint(request));
+    }
+
     @Test
     void isOpenEndpoint_OrdersEndpoint_ReturnsFalse() {
         MockServerHttpRequest request = MockServerHttpRequest
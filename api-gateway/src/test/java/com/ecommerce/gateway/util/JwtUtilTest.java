@@ -1,9 +1,15 @@
 package com.ecommerce.gateway.util;
 
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class JwtUtilTest {
@@ -40,5 +46,23 @@ class JwtUtilTest {
     void validateToken_NullToken_ReturnsFalse() {
         assertFalse(jwtUtil.validateToken(null));
     }
-}
 
+    @Test
+    void extractClaims_CompactRoles_ReturnsPrefixedRoles() {
+        String token = Jwts.builder()
+                .id("test-jti")
+                .subject("john")
+                .claim("userId", 42L)
+                .claim("roles", "ADMIN,USER")
+                .claim("email", "john@example.com")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(TEST_SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertTrue(jwtUtil.validateToken(token));
+        assertEquals("42", jwtUtil.extractUserId(token));
+        assertEquals("john", jwtUtil.extractUsername(token));
+        assertEquals("john@example.com", jwtUtil.extractEmail(token));
+        assertEquals(List.of("ROLE_ADMIN", "ROLE_USER"), jwtUtil.extractRoles(token));
+    }
+}
@@ -1,6 +1,9 @@
 package com.ecommerce.orderservice.client;
 
+import com.ecommerce.orderservice.dto.BatchInventoryRequest;
 import com.ecommerce.orderservice.dto.ProductResponse;
+import com.ecommerce.orderservice.dto.StockAvailability;
+import com.ecommerce.orderservice.dto.StockHoldRequest;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
 
@@ -15,13 +18,16 @@ public interface ProductClient {
     @PostMapping("/api/products/batch")
     List<ProductResponse> getProductsByIds(@RequestBody List<Long> ids);
 
-    @PostMapping("/api/products/{id}/reserve")
-    Boolean reserveStock(@PathVariable("id") Long id, @RequestParam("quantity") Integer quantity);
+    @PostMapping("/api/products/reservations")
+    Boolean holdStock(@RequestBody StockHoldRequest request);
 
-    @PostMapping("/api/products/{id}/release")
-    void releaseStock(@PathVariable("id") Long id, @RequestParam("quantity") Integer quantity);
+    @PostMapping("/api/products/reservations/{orderReference}/confirm")
+    Boolean confirmReservation(@PathVariable("orderReference") String orderReference);
 
-    @GetMapping("/api/products/{id}/stock")
-    Boolean checkStock(@PathVariable("id") Long id, @RequestParam("quantity") Integer quantity);
+    @PostMapping("/api/products/reservations/{orderReference}/release")
+    void releaseReservation(@PathVariable("orderReference") String orderReference);
+
+    @PostMapping("/api/products/stock/check")
+    List<StockAvailability> checkStock(@RequestBody BatchInventoryRequest request);
 }
 
@@ -1,6 +1,9 @@
 package com.ecommerce.orderservice.client;
 
+import com.ecommerce.orderservice.dto.BatchInventoryRequest;
 import com.ecommerce.orderservice.dto.ProductResponse;
+import com.ecommerce.orderservice.dto.StockAvailability;
+import com.ecommerce.orderservice.dto.StockHoldRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
@@ -38,20 +41,36 @@ public class ProductClientFallback implements ProductClient {
     }
 
     @Override
-    public Boolean reserveStock(Long id, Integer quantity) {
-        log.warn("Fallback: Unable to reserve stock for product: {}", id);
+    public Boolean holdStock(StockHoldRequest request) {
+        log.warn("Fallback: Unable to hold stock for order: {}", request.getOrderReference());
         return false;
     }
 
+    /**
+     * null - результат неизвестен (в отличие от false - удержание истекло)
+     */
     @Override
-    public void releaseStock(Long id, Integer quantity) {
-        log.warn("Fallback: Unable to release stock for product: {}", id);
+    public Boolean confirmReservation(String orderReference) {
+        log.warn("Fallback: Unable to confirm stock reservation for order: {}", orderReference);
+        return null;
     }
 
+    /**
+     * Ошибка, а не тихий пропуск: вызывающий ставит снятие удержания в очередь повтора
+     */
     @Override
-    public Boolean checkStock(Long id, Integer quantity) {
-        log.warn("Fallback: Unable to check stock for product: {}", id);
-        return false;
+    public void releaseReservation(String orderReference) {
+        log.warn("Fallback: Unable to release stock reservation for order: {}", orderReference);
+        throw new IllegalStateException("Unable to release stock reservation for order: " + orderReference);
+    }
+
+    /**
+     * null - наличие неизвестно
+     */
+    @Override
+    public List<StockAvailability> checkStock(BatchInventoryRequest request) {
+        log.warn("Fallback: Unable to check stock for {} items", request.getItems().size());
+        return null;
     }
 }
 
@@ -0,0 +1,18 @@
+package com.ecommerce.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockAvailability {
+
+    private Long productId;
+    private Integer requested;
+    private Integer available;
+    private boolean sufficient;
+}
@@ -14,7 +14,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_stock_release_pending", columnList = "stock_release_pending")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -52,6 +54,12 @@ public class Order {
     @Column(length = 500)
     private String notes;
 
+    /**
+     * Удержание товаров не удалось снять, снятие повторяется в фоне
+     */
+    @Column(name = "stock_release_pending")
+    private Boolean stockReleasePending;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
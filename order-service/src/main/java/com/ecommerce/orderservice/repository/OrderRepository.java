@@ -5,7 +5,11 @@ import com.ecommerce.orderservice.entity.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -27,5 +31,12 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
 
     long countByStatus(OrderStatus status);
+
+    List<Order> findTop100ByStockReleasePendingTrueOrderByIdAsc();
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Order o SET o.stockReleasePending = false WHERE o.id = :id")
+    int clearStockReleasePending(@Param("id") Long id);
 }
 
@@ -15,6 +15,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -50,58 +51,59 @@ public class OrderService {
         Map<Long, ProductResponse> productMap = products.stream()
                 .collect(Collectors.toMap(ProductResponse::getId, Function.identity()));
 
-        // Проверить доступность и зарезервировать товары
-        List<OrderItem> reservedItems = new ArrayList<>();
-        try {
-            for (OrderItemRequest itemRequest : request.getItems()) {
-                ProductResponse product = productMap.get(itemRequest.getProductId());
-                if (product == null || !product.isActive()) {
-                    throw new ResourceNotFoundException("Product not found or inactive: " + itemRequest.getProductId());
-                }
-
-                Boolean reserved = productClient.reserveStock(itemRequest.getProductId(), itemRequest.getQuantity());
-                if (reserved == null || !reserved) {
-                    throw new InsufficientStockException("Insufficient stock for product: " + product.getName());
-                }
-
-                OrderItem orderItem = OrderItem.builder()
-                        .productId(product.getId())
-                        .productName(product.getName())
-                        .productSku(product.getSku())
-                        .quantity(itemRequest.getQuantity())
-                        .unitPrice(product.getPrice())
-                        .subtotal(product.getPrice().multiply(BigDecimal.valueOf(itemRequest.getQuantity())))
-                        .build();
-
-                reservedItems.add(orderItem);
-            }
-        } catch (Exception e) {
-            // Откатить резервирования при ошибке
-            for (OrderItem item : reservedItems) {
-                try {
-                    productClient.releaseStock(item.getProductId(), item.getQuantity());
-                } catch (Exception ex) {
-                    log.error("Failed to release stock for product: {}", item.getProductId(), ex);
-                }
+        // Проверить доступность товаров
+        List<OrderItem> orderItems = new ArrayList<>();
+        for (OrderItemRequest itemRequest : request.getItems()) {
+            ProductResponse product = productMap.get(itemRequest.getProductId());
+            if (product == null || !product.isActive()) {
+                throw new ResourceNotFoundException("Product not found or inactive: " + itemRequest.getProductId());
             }
-            throw e;
+
+            OrderItem orderItem = OrderItem.builder()
+                    .productId(product.getId())
+                    .productName(product.getName())
+                    .productSku(product.getSku())
+                    .quantity(itemRequest.getQuantity())
+                    .unitPrice(product.getPrice())
+                    .subtotal(product.getPrice().multiply(BigDecimal.valueOf(itemRequest.getQuantity())))
+                    .build();
+
+            orderItems.add(orderItem);
+        }
+
+        // Удержать все позиции под номер заказа одним запросом (всё или ничего);
+        // неоплаченное удержание product-service снимет сам по истечении срока
+        String orderNumber = generateOrderNumber();
+        Boolean reserved = productClient.holdStock(StockHoldRequest.builder()
+                .orderReference(orderNumber)
+                .items(toInventoryItems(orderItems))
+                .build());
+        if (reserved == null || !reserved) {
+            throw new InsufficientStockException("Insufficient stock for order items");
         }
 
         // Создать заказ
         Order order = Order.builder()
-                .orderNumber(generateOrderNumber())
+                .orderNumber(orderNumber)
                 .userId(request.getUserId())
                 .shippingAddress(request.getShippingAddress())
                 .notes(request.getNotes())
                 .status(OrderStatus.PENDING)
                 .build();
 
-        for (OrderItem item : reservedItems) {
+        for (OrderItem item : orderItems) {
             order.addItem(item);
         }
 
         order.calculateTotalAmount();
-        order = orderRepository.save(order);
+        try {
+            order = orderRepository.saveAndFlush(order);
+        } catch (RuntimeException e) {
+            // Снять удержание, если заказ не сохранился; при ошибке снятия
+            // неподтвержденное удержание вернет на склад product-service по истечении срока
+            releaseReservation(orderNumber);
+            throw e;
+        }
 
         log.info("Order created successfully: {}", order.getOrderNumber());
         return mapToOrderResponse(order);
@@ -153,7 +155,7 @@ public class OrderService {
         return mapToOrderResponse(order);
     }
 
-    @Transactional
+    @Transactional(noRollbackFor = InvalidOrderStateException.class)
     public OrderResponse processPayment(Long orderId, String paymentMethod) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
@@ -174,6 +176,26 @@ public class OrderService {
 
         if ("COMPLETED".equals(paymentResponse.getStatus())) {
             order.setPaymentId(paymentResponse.getId());
+
+            // Удержание товара становится продажей
+            Boolean confirmed = productClient.confirmReservation(order.getOrderNumber());
+            if (Boolean.FALSE.equals(confirmed)) {
+                // Удержание истекло до оплаты - товар мог уйти другому покупателю
+                refund(order, paymentResponse.getId());
+                throw new InvalidOrderStateException("Stock reservation expired for order: " + order.getOrderNumber());
+            }
+            if (confirmed == null) {
+                // product-service недоступен: неподтвержденное удержание истечет и товар вернется в продажу,
+                // поэтому оплаченным заказ не считаем. Снятие удержания нужно и в случае,
+                // если подтверждение прошло, а ответ потерян
+                log.error("Stock reservation for order {} was not confirmed, product-service unavailable",
+                        order.getOrderNumber());
+                releaseReservation(order);
+                refund(order, paymentResponse.getId());
+                throw new InvalidOrderStateException("Stock reservation could not be confirmed for order: "
+                        + order.getOrderNumber());
+            }
+
             order.setStatus(OrderStatus.PAID);
             order = orderRepository.save(order);
             log.info("Payment processed successfully for order: {}", order.getOrderNumber());
@@ -194,13 +216,7 @@ public class OrderService {
         }
 
         // Освободить резервы товаров
-        for (OrderItem item : order.getItems()) {
-            try {
-                productClient.releaseStock(item.getProductId(), item.getQuantity());
-            } catch (Exception e) {
-                log.error("Failed to release stock for product: {}", item.getProductId(), e);
-            }
-        }
+        releaseReservation(order);
 
         // Если был платёж - сделать возврат
         if (order.getPaymentId() != null) {
@@ -235,6 +251,56 @@ public class OrderService {
         }
     }
 
+    private void refund(Order order, Long paymentId) {
+        paymentClient.refundPayment(paymentId);
+        order.setStatus(OrderStatus.REFUNDED);
+        orderRepository.save(order);
+    }
+
+    /**
+     * Повторяет снятие удержаний, которое не удалось при отмене или оплате заказа
+     * Снятие идемпотентно, поэтому повтор с нескольких экземпляров безопасен
+     */
+    @Scheduled(initialDelayString = "${orders.stock-release.retry-interval:60000}",
+            fixedDelayString = "${orders.stock-release.retry-interval:60000}")
+    public void retryPendingStockReleases() {
+        for (Order order : orderRepository.findTop100ByStockReleasePendingTrueOrderByIdAsc()) {
+            if (releaseReservation(order.getOrderNumber())) {
+                orderRepository.clearStockReleasePending(order.getId());
+                log.info("Stock reservation for order {} released on retry", order.getOrderNumber());
+            }
+        }
+    }
+
+    /**
+     * Подтвержденное удержание само не истекает, поэтому неудачное снятие
+     * сохраняется в заказе и повторяется в фоне
+     */
+    private void releaseReservation(Order order) {
+        if (!releaseReservation(order.getOrderNumber())) {
+            order.setStockReleasePending(true);
+        }
+    }
+
+    private boolean releaseReservation(String orderNumber) {
+        try {
+            productClient.releaseReservation(orderNumber);
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to release stock reservation for order: {}", orderNumber, e);
+            return false;
+        }
+    }
+
+    private List<InventoryRequest> toInventoryItems(List<OrderItem> items) {
+        return items.stream()
+                .map(item -> InventoryRequest.builder()
+                        .productId(item.getProductId())
+                        .quantity(item.getQuantity())
+                        .build())
+                .toList();
+    }
+
     private String generateOrderNumber() {
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
         String uuid = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
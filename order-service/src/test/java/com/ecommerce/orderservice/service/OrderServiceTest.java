@@ -0,0 +1,94 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.client.ProductClient;
+import com.ecommerce.orderservice.dto.BatchInventoryRequest;
+import com.ecommerce.orderservice.dto.ProductResponse;
+import com.ecommerce.orderservice.dto.StockAvailability;
+import com.ecommerce.orderservice.dto.StockHoldRequest;
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.entity.OrderStatus;
+import com.ecommerce.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderServiceTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void cancelOrder_ReleaseFails_RetriedInBackground() {
+        FlakyProductClient productClient = new FlakyProductClient();
+        OrderService orderService = new OrderService(orderRepository, productClient, null);
+        Order order = orderRepository.save(Order.builder()
+                .orderNumber("ORD-RELEASE-1")
+                .userId(1L)
+                .totalAmount(new BigDecimal("10.00"))
+                .build());
+
+        productClient.available = false;
+        assertEquals(OrderStatus.CANCELLED, orderService.cancelOrder(order.getId()).getStatus());
+        assertTrue(orderRepository.findById(order.getId()).orElseThrow().getStockReleasePending());
+
+        // Пока product-service недоступен, снятие остается в очереди
+        orderService.retryPendingStockReleases();
+        assertTrue(orderRepository.findById(order.getId()).orElseThrow().getStockReleasePending());
+
+        productClient.available = true;
+        orderService.retryPendingStockReleases();
+        assertFalse(orderRepository.findById(order.getId()).orElseThrow().getStockReleasePending());
+        assertEquals(List.of("ORD-RELEASE-1"), productClient.released);
+    }
+
+    /**
+     * Как Feign-клиент с fallback: при недоступности сервиса снятие удержания падает
+     */
+    private static class FlakyProductClient implements ProductClient {
+
+        private boolean available = true;
+        private final List<String> released = new ArrayList<>();
+
+        @Override
+        public void releaseReservation(String orderReference) {
+            if (!available) {
+                throw new IllegalStateException("product-service is unavailable");
+            }
+            released.add(orderReference);
+        }
+
+        @Override
+        public ProductResponse getProductById(Long id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<ProductResponse> getProductsByIds(List<Long> ids) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Boolean holdStock(StockHoldRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Boolean confirmReservation(String orderReference) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<StockAvailability> checkStock(BatchInventoryRequest request) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
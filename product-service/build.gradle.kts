@@ -42,6 +42,9 @@ dependencies {
     // Actuator
     implementation("org.springframework.boot:spring-boot-starter-actuator")
 
+    // Caffeine (near-cache товаров)
+    implementation("com.github.ben-manes.caffeine:caffeine")
+
     // Micrometer для трассировки
     implementation("io.micrometer:micrometer-tracing-bridge-brave")
     implementation("io.zipkin.reporter2:zipkin-reporter-brave")
@@ -0,0 +1,115 @@
+package com.ecommerce.productservice.cache;
+
+import com.ecommerce.productservice.dto.CategoryResponse;
+import com.ecommerce.productservice.dto.ResourceVersion;
+
+import java.util.*;
+
+/**
+ * Неизменяемый снимок всех категорий и дерева активных категорий
+ * Изменение категории создает новый снимок (copy-on-write)
+ */
+public final class CategoryTree {
+
+    private static final Comparator<CategoryResponse> BY_ID = Comparator.comparing(CategoryResponse::getId);
+
+    /**
+     * Все категории, включая неактивные, без дочерних элементов
+     */
+    private final Map<Long, CategoryResponse> byId;
+    private final List<CategoryResponse> active;
+    private final Map<Long, List<CategoryResponse>> activeChildren;
+    private final List<CategoryResponse> roots;
+
+    /**
+     * Версия снимка для условного GET списков категорий
+     */
+    private final ResourceVersion version;
+
+    private CategoryTree(Map<Long, CategoryResponse> byId) {
+        this.byId = byId;
+
+        ResourceVersion.Builder versionBuilder = ResourceVersion.builder();
+        byId.values().stream().sorted(BY_ID).forEach(versionBuilder::add);
+        this.version = versionBuilder.build();
+
+        List<CategoryResponse> activeCategories = new ArrayList<>();
+        Map<Long, List<CategoryResponse>> children = new HashMap<>();
+        for (CategoryResponse category : byId.values()) {
+            if (category.isActive()) {
+                activeCategories.add(category);
+                if (category.getParentId() != null) {
+                    children.computeIfAbsent(category.getParentId(), key -> new ArrayList<>()).add(category);
+                }
+            }
+        }
+        activeCategories.sort(BY_ID);
+
+        Map<Long, List<CategoryResponse>> sortedChildren = new HashMap<>();
+        children.forEach((parentId, list) -> {
+            list.sort(BY_ID);
+            sortedChildren.put(parentId, List.copyOf(list));
+        });
+
+        this.active = List.copyOf(activeCategories);
+        this.activeChildren = Map.copyOf(sortedChildren);
+        this.roots = activeCategories.stream()
+                .filter(category -> category.getParentId() == null)
+                .map(this::withChildren)
+                .toList();
+    }
+
+    public static CategoryTree of(Collection<CategoryResponse> categories) {
+        Map<Long, CategoryResponse> byId = new HashMap<>();
+        for (CategoryResponse category : categories) {
+            byId.put(category.getId(), category);
+        }
+        return new CategoryTree(Map.copyOf(byId));
+    }
+
+    /**
+     * Новый снимок с добавленной или замененной категорией
+     */
+    public CategoryTree with(CategoryResponse category) {
+        Map<Long, CategoryResponse> copy = new HashMap<>(byId);
+        copy.put(category.getId(), category);
+        return new CategoryTree(Map.copyOf(copy));
+    }
+
+    public Optional<CategoryResponse> findById(Long id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    public List<CategoryResponse> getActive() {
+        return active;
+    }
+
+    public List<CategoryResponse> getActiveChildren(Long parentId) {
+        return activeChildren.getOrDefault(parentId, List.of());
+    }
+
+    public List<CategoryResponse> getRoots() {
+        return roots;
+    }
+
+    public ResourceVersion getVersion() {
+        return version;
+    }
+
+    private CategoryResponse withChildren(CategoryResponse category) {
+        List<CategoryResponse> children = getActiveChildren(category.getId()).stream()
+                .map(this::withChildren)
+                .toList();
+
+        return CategoryResponse.builder()
+                .id(category.getId())
+                .name(category.getName())
+                .description(category.getDescription())
+                .parentId(category.getParentId())
+                .children(children)
+                .active(category.isActive())
+                .createdAt(category.getCreatedAt())
+                .updatedAt(category.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,70 @@
+package com.ecommerce.productservice.cache;
+
+import com.ecommerce.productservice.dto.CategoryResponse;
+import com.ecommerce.productservice.entity.Category;
+import com.ecommerce.productservice.event.CategoryChangedEvent;
+import com.ecommerce.productservice.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Держит актуальный снимок дерева категорий
+ * Снимок загружается одним запросом при старте и периодически (изменения
+ * на других экземплярах), а локальные изменения применяются после коммита
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryTreeCache {
+
+    private final CategoryRepository categoryRepository;
+
+    private volatile CategoryTree tree;
+
+    public CategoryTree getTree() {
+        CategoryTree current = tree;
+        if (current == null) {
+            reload();
+            current = tree;
+        }
+        return current;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${products.categories.refresh-interval:60000}",
+            fixedDelayString = "${products.categories.refresh-interval:60000}")
+    public synchronized void reload() {
+        List<CategoryResponse> categories = categoryRepository.findAll().stream()
+                .map(CategoryTreeCache::toResponse)
+                .toList();
+        tree = CategoryTree.of(categories);
+        log.debug("Category tree snapshot loaded: categories={}", categories.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCategoryChanged(CategoryChangedEvent event) {
+        CategoryTree current = tree;
+        if (current != null) {
+            tree = current.with(event.getCategory());
+        }
+    }
+
+    private static CategoryResponse toResponse(Category category) {
+        return CategoryResponse.builder()
+                .id(category.getId())
+                .name(category.getName())
+                .description(category.getDescription())
+                .parentId(category.getParent() != null ? category.getParent().getId() : null)
+                .active(category.isActive())
+                .createdAt(category.getCreatedAt())
+                .updatedAt(category.getUpdatedAt())
+                .build();
+    }
+}
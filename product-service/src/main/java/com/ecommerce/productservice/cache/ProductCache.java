@@ -0,0 +1,136 @@
+package com.ecommerce.productservice.cache;
+
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.event.ProductChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Near-cache товаров по id и SKU (Caffeine, вытеснение W-TinyLFU)
+ * Запись удаляется сразу после коммита изменения товара или его остатка;
+ * короткий TTL ограничивает устаревание данных, измененных в обход сервиса
+ * или на другом экземпляре
+ */
+@Component
+public class ProductCache {
+
+    private final Cache<Long, ProductResponse> byId;
+
+    /**
+     * SKU -> id товара; сами данные хранятся только в byId
+     */
+    private final Cache<String, Long> idBySku;
+
+    /**
+     * Растет при каждом сбросе; товар, загруженный во время изменения, не кешируется
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public ProductCache(MeterRegistry meterRegistry,
+                        @Value("${products.cache.maximum-size:10000}") long maximumSize,
+                        @Value("${products.cache.expire-after-write:10000}") long expireAfterWriteMillis) {
+        Duration ttl = Duration.ofMillis(expireAfterWriteMillis);
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.idBySku = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "products.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, idBySku, "products.by-sku");
+    }
+
+    /**
+     * Возвращает товар из кеша или загружает его; null, если товар не найден
+     */
+    public ProductResponse get(Long id, Function<Long, ProductResponse> loader) {
+        return byId.get(id, loader);
+    }
+
+    public ProductResponse getIfPresent(Long id) {
+        return byId.getIfPresent(id);
+    }
+
+    public ProductResponse getIfPresentBySku(String sku) {
+        Long id = idBySku.getIfPresent(sku);
+        if (id != null) {
+            ProductResponse cached = byId.getIfPresent(id);
+            if (cached != null && sku.equals(cached.getSku())) {
+                return cached;
+            }
+        }
+        return null;
+    }
+
+    public ProductResponse getBySku(String sku, Supplier<ProductResponse> loader) {
+        ProductResponse cached = getIfPresentBySku(sku);
+        if (cached != null) {
+            return cached;
+        }
+
+        long startGeneration = generation.get();
+        ProductResponse product = loader.get();
+        if (product == null) {
+            idBySku.invalidate(sku);
+            return null;
+        }
+        byId.put(product.getId(), product);
+        idBySku.put(sku, product.getId());
+        // Товар изменился во время загрузки: загруженная версия могла устареть
+        if (generation.get() != startGeneration) {
+            evict(product.getId());
+        }
+        return product;
+    }
+
+    /**
+     * Загружает одним запросом только отсутствующие в кеше id
+     * Результат в порядке запроса, без дублей и ненайденных товаров
+     */
+    public List<ProductResponse> getAll(Collection<Long> ids,
+                                        Function<Set<Long>, Map<Long, ProductResponse>> loader) {
+        Set<Long> keys = new LinkedHashSet<>(ids);
+        keys.remove(null);
+        long startGeneration = generation.get();
+        Set<Long> loaded = new HashSet<>();
+        Map<Long, ProductResponse> products = byId.getAll(keys, missing -> {
+            loaded.addAll(missing);
+            return loader.apply(new HashSet<>(missing));
+        });
+        // Пакетная загрузка не атомарна со сбросом, как get(id, loader)
+        if (!loaded.isEmpty() && generation.get() != startGeneration) {
+            byId.invalidateAll(loaded);
+        }
+        return new ArrayList<>(products.values());
+    }
+
+    public void evict(Long id) {
+        generation.incrementAndGet();
+        ProductResponse cached = byId.getIfPresent(id);
+        byId.invalidate(id);
+        if (cached != null && cached.getSku() != null) {
+            idBySku.invalidate(cached.getSku());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(event.getProductId());
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.productservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+
+/**
+ * Включается заданием spring.datasource.replica.url; без него сервис работает
+ * с одним пулом из стандартной автоконфигурации
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "spring.datasource.replica", name = "url")
+public class ReadReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${spring.datasource.replica.url}") String url,
+                                              @Value("${spring.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${spring.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setReadOnly(true);
+        // Сервис стартует и при недоступной реплике, переход на основную БД не ждет 30 секунд
+        dataSource.setInitializationFailTimeout(-1);
+        dataSource.setConnectionTimeout(2000);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public ReplicaRoutingDataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                                               @Qualifier("replicaDataSource") HikariDataSource replicaDataSource,
+                                               @Value("${spring.datasource.replica.sticky-window:5s}") Duration stickyWindow,
+                                               @Value("${spring.datasource.replica.retry-interval:30s}") Duration retryInterval,
+                                               MeterRegistry meterRegistry) {
+        return ReplicaRoutingDataSource.create(primaryDataSource, replicaDataSource,
+                stickyWindow, retryInterval, meterRegistry);
+    }
+
+    @Bean
+    public ReplicaStickinessFilter replicaStickinessFilter(ReplicaRoutingDataSource dataSource) {
+        return new ReplicaStickinessFilter(dataSource);
+    }
+}
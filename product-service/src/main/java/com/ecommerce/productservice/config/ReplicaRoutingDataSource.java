@@ -0,0 +1,208 @@
+package com.ecommerce.productservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Соединения read-only транзакций берутся из пула реплики, остальные - из основного пула
+ * Соединение открывается лениво, при первом запросе, когда признак readOnly транзакции уже известен.
+ * Клиент, недавно выполнивший запись, читает с основной БД, пока не истечет окно
+ * отставания реплики; если реплика недоступна, чтение уходит на основную БД
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy {
+
+    private static final int MAX_TRACKED_CLIENTS = 10_000;
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long stickyWindowMillis;
+    private final long retryIntervalMillis;
+
+    /**
+     * Клиент текущего запроса (X-User-Id), выставляется ReplicaStickinessFilter
+     */
+    private final ThreadLocal<String> currentClient = new ThreadLocal<>();
+
+    /**
+     * Время последней записи в потоке: запрос без клиента читает свои записи
+     */
+    private final ThreadLocal<Long> lastThreadWrite = new ThreadLocal<>();
+
+    private final Map<String, Long> lastWriteByClient = new ConcurrentHashMap<>();
+
+    private volatile long replicaDownUntil;
+
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    private final Counter stickyReads;
+    private final Counter fallbackReads;
+
+    private ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration stickyWindow,
+                                     Duration retryInterval, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.stickyWindowMillis = stickyWindow.toMillis();
+        this.retryIntervalMillis = retryInterval.toMillis();
+        this.primaryConnections = connectionCounter(meterRegistry, "primary");
+        this.replicaConnections = connectionCounter(meterRegistry, "replica");
+        this.stickyReads = readCounter(meterRegistry, "sticky");
+        this.fallbackReads = readCounter(meterRegistry, "fallback");
+    }
+
+    /**
+     * Пулы подключаются после конструктора: вложенным источникам нужна ссылка на готовый роутер
+     */
+    public static ReplicaRoutingDataSource create(DataSource primary, DataSource replica, Duration stickyWindow,
+                                                  Duration retryInterval, MeterRegistry meterRegistry) {
+        ReplicaRoutingDataSource router = new ReplicaRoutingDataSource(primary, replica, stickyWindow,
+                retryInterval, meterRegistry);
+        router.setTargetDataSource(new PrimaryDataSource(router));
+        router.setReadOnlyDataSource(new ReadOnlyDataSource(router));
+        return router;
+    }
+
+    public void bindClient(String client) {
+        currentClient.set(client);
+    }
+
+    /**
+     * Снимает привязку в конце запроса: поток из пула не должен переносить
+     * клиента и время своей записи в чужие запросы
+     */
+    public void unbindClient() {
+        currentClient.remove();
+        lastThreadWrite.remove();
+    }
+
+    private Connection primaryConnection() throws SQLException {
+        Connection connection = primary.getConnection();
+        primaryConnections.increment();
+        return connection;
+    }
+
+    private boolean recentlyWrote() {
+        long threshold = System.currentTimeMillis() - stickyWindowMillis;
+        Long threadWrite = lastThreadWrite.get();
+        if (threadWrite != null && threadWrite > threshold) {
+            return true;
+        }
+        String client = currentClient.get();
+        if (client == null) {
+            return false;
+        }
+        Long clientWrite = lastWriteByClient.get(client);
+        return clientWrite != null && clientWrite > threshold;
+    }
+
+    private void recordWrite(String client) {
+        long now = System.currentTimeMillis();
+        lastThreadWrite.set(now);
+        if (client == null) {
+            return;
+        }
+        lastWriteByClient.put(client, now);
+        if (lastWriteByClient.size() > MAX_TRACKED_CLIENTS) {
+            lastWriteByClient.values().removeIf(time -> time <= now - stickyWindowMillis);
+        }
+    }
+
+    /**
+     * Основной пул; запись в транзакции запоминается после коммита для read-your-writes
+     */
+    private static class PrimaryDataSource extends AbstractDataSource {
+
+        private final ReplicaRoutingDataSource router;
+
+        PrimaryDataSource(ReplicaRoutingDataSource router) {
+            this.router = router;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = router.primaryConnection();
+            if (TransactionSynchronizationManager.isSynchronizationActive()
+                    && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                String client = router.currentClient.get();
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        router.recordWrite(client);
+                    }
+                });
+            }
+            return connection;
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new UnsupportedOperationException("Pool credentials are configured per data source");
+        }
+    }
+
+    /**
+     * Пул реплики с переходом на основной пул после недавней записи или при недоступности реплики
+     */
+    private static class ReadOnlyDataSource extends AbstractDataSource {
+
+        private final ReplicaRoutingDataSource router;
+
+        ReadOnlyDataSource(ReplicaRoutingDataSource router) {
+            this.router = router;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (router.recentlyWrote()) {
+                router.stickyReads.increment();
+                return router.primaryConnection();
+            }
+            if (System.currentTimeMillis() < router.replicaDownUntil) {
+                router.fallbackReads.increment();
+                return router.primaryConnection();
+            }
+            try {
+                Connection connection = router.replica.getConnection();
+                router.replicaConnections.increment();
+                return connection;
+            } catch (SQLException e) {
+                router.replicaDownUntil = System.currentTimeMillis() + router.retryIntervalMillis;
+                log.warn("Replica is unavailable, reading from primary for {} ms: {}",
+                        router.retryIntervalMillis, e.getMessage());
+                router.fallbackReads.increment();
+                return router.primaryConnection();
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new UnsupportedOperationException("Pool credentials are configured per data source");
+        }
+    }
+
+    private static Counter connectionCounter(MeterRegistry meterRegistry, String pool) {
+        return Counter.builder("datasource.routing.connections")
+                .description("Connections obtained through the read/write router")
+                .tag("pool", pool)
+                .register(meterRegistry);
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("datasource.routing.primary.reads")
+                .description("Read-only transactions served by the primary")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
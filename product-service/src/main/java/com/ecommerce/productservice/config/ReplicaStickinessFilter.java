@@ -0,0 +1,34 @@
+package com.ecommerce.productservice.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Привязывает запрос к пользователю из заголовка шлюза, чтобы его чтения
+ * в следующих запросах после записи шли на основную БД
+ */
+@RequiredArgsConstructor
+public class ReplicaStickinessFilter extends OncePerRequestFilter {
+
+    static final String USER_ID_HEADER = "X-User-Id";
+
+    private final ReplicaRoutingDataSource dataSource;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        dataSource.bindClient(request.getHeader(USER_ID_HEADER));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            dataSource.unbindClient();
+        }
+    }
+}
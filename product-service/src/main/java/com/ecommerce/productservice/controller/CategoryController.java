@@ -2,12 +2,14 @@ package com.ecommerce.productservice.controller;
 
 import com.ecommerce.productservice.dto.CategoryResponse;
 import com.ecommerce.productservice.dto.CreateCategoryRequest;
+import com.ecommerce.productservice.dto.ResourceVersion;
 import com.ecommerce.productservice.service.CategoryService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -25,27 +27,27 @@ public class CategoryController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<CategoryResponse> getCategoryById(@PathVariable Long id) {
+    public ResponseEntity<CategoryResponse> getCategoryById(@PathVariable Long id, WebRequest request) {
         CategoryResponse response = categoryService.getCategoryById(id);
-        return ResponseEntity.ok(response);
+        return ConditionalResponses.ok(request, ResourceVersion.of(response), () -> response);
     }
 
     @GetMapping
-    public ResponseEntity<List<CategoryResponse>> getAllCategories() {
-        List<CategoryResponse> categories = categoryService.getAllCategories();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<List<CategoryResponse>> getAllCategories(WebRequest request) {
+        return ConditionalResponses.ok(request, categoryService.getCategoriesVersion(),
+                categoryService::getAllCategories);
     }
 
     @GetMapping("/root")
-    public ResponseEntity<List<CategoryResponse>> getRootCategories() {
-        List<CategoryResponse> categories = categoryService.getRootCategories();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<List<CategoryResponse>> getRootCategories(WebRequest request) {
+        return ConditionalResponses.ok(request, categoryService.getCategoriesVersion(),
+                categoryService::getRootCategories);
     }
 
     @GetMapping("/{parentId}/children")
-    public ResponseEntity<List<CategoryResponse>> getChildCategories(@PathVariable Long parentId) {
-        List<CategoryResponse> categories = categoryService.getChildCategories(parentId);
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<List<CategoryResponse>> getChildCategories(@PathVariable Long parentId, WebRequest request) {
+        return ConditionalResponses.ok(request, categoryService.getCategoriesVersion(),
+                () -> categoryService.getChildCategories(parentId));
     }
 
     @PutMapping("/{id}")
@@ -0,0 +1,24 @@
+package com.ecommerce.productservice.controller;
+
+import com.ecommerce.productservice.dto.ResourceVersion;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Условный GET: ETag и Last-Modified выставляются в ответ, при совпадении
+ * с If-None-Match / If-Modified-Since отдается 304 без загрузки и сериализации тела
+ */
+final class ConditionalResponses {
+
+    private ConditionalResponses() {
+    }
+
+    static <T> ResponseEntity<T> ok(WebRequest request, ResourceVersion version, Supplier<T> body) {
+        if (request.checkNotModified(version.eTag(), version.lastModified())) {
+            return null;
+        }
+        return ResponseEntity.ok(body.get());
+    }
+}
@@ -1,16 +1,28 @@
 package com.ecommerce.productservice.controller;
 
 import com.ecommerce.productservice.dto.*;
+import com.ecommerce.productservice.importer.ProductImportReader;
+import com.ecommerce.productservice.service.ProductExportService;
+import com.ecommerce.productservice.service.ProductImportService;
 import com.ecommerce.productservice.service.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -19,6 +31,8 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductExportService productExportService;
 
     @PostMapping
     public ResponseEntity<ProductResponse> createProduct(@Valid @RequestBody CreateProductRequest request) {
@@ -26,39 +40,125 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Массовая загрузка: тело запроса в NDJSON (application/x-ndjson) или CSV (text/csv)
+     */
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<ProductImportReport> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        ProductImportReport report = productImportService.importProducts(MediaType.parseMediaType(contentType), body);
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     * Синхронизация каталога с фидом: записываются только новые, измененные и пропавшие товары
+     */
+    @PostMapping(value = "/sync", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<ProductSyncReport> syncProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(defaultValue = "true") boolean deactivateMissing,
+            InputStream body) throws IOException {
+        ProductSyncReport report = productImportService.syncProducts(
+                MediaType.parseMediaType(contentType), body, deactivateMissing);
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     * Выгрузка каталога в NDJSON по мере чтения из БД
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince) {
+        StreamingResponseBody body = output -> productExportService.exportProducts(updatedSince, output);
+        return ResponseEntity.ok().contentType(ProductImportReader.NDJSON).body(body);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
-        ProductResponse response = productService.getProductById(id);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id, WebRequest request) {
+        ResponseEntity<ProductResponse> response = ConditionalResponses.ok(request, productService.getProductVersion(id),
+                () -> productService.getProductById(id));
+        // 304 - тоже просмотр карточки
+        productService.recordView(id);
+        return response;
     }
 
     @GetMapping("/sku/{sku}")
-    public ResponseEntity<ProductResponse> getProductBySku(@PathVariable String sku) {
-        ProductResponse response = productService.getProductBySku(sku);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<ProductResponse> getProductBySku(@PathVariable String sku, WebRequest request) {
+        return ConditionalResponses.ok(request, productService.getProductVersionBySku(sku),
+                () -> productService.getProductBySku(sku));
     }
 
     @GetMapping
-    public ResponseEntity<Page<ProductResponse>> getAllProducts(
-            @PageableDefault(size = 20) Pageable pageable) {
-        Page<ProductResponse> products = productService.getAllProducts(pageable);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<ProductPageResponse> getAllProducts(
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            WebRequest request) {
+        ProductPageResponse products = productService.listProducts(null, sort, direction, cursor, size, includeTotal);
+        return ConditionalResponses.ok(request, pageVersion(products), () -> products);
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<Page<ProductResponse>> getProductsByCategory(
+    public ResponseEntity<ProductPageResponse> getProductsByCategory(
             @PathVariable Long categoryId,
-            @PageableDefault(size = 20) Pageable pageable) {
-        Page<ProductResponse> products = productService.getProductsByCategory(categoryId, pageable);
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            WebRequest request) {
+        ProductPageResponse products = productService.listProducts(categoryId, sort, direction, cursor, size, includeTotal);
+        return ConditionalResponses.ok(request, pageVersion(products), () -> products);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestion>> suggestProducts(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<ProductSuggestion> suggestions = productService.suggestProducts(prefix, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<ProductResponse>> getTrendingProducts(
+            @RequestParam(defaultValue = "10") int limit) {
+        List<ProductResponse> products = productService.getTrendingProducts(limit);
+        return ResponseEntity.ok(products);
+    }
+
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<ProductResponse>> getRelatedProducts(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<ProductResponse> products = productService.getRelatedProducts(id, limit);
+        return ResponseEntity.ok(products);
+    }
+
+    @GetMapping("/filter")
+    public ResponseEntity<ProductFilterResponse> filterProducts(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(defaultValue = "true") boolean active,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        ProductFilterResponse products = productService.filterProducts(
+                categoryId, minPrice, maxPrice, inStock, active, page, size);
         return ResponseEntity.ok(products);
     }
 
     @GetMapping("/search")
     public ResponseEntity<Page<ProductResponse>> searchProducts(
             @RequestParam String keyword,
-            @PageableDefault(size = 20) Pageable pageable) {
+            @PageableDefault(size = 20) Pageable pageable,
+            WebRequest request) {
         Page<ProductResponse> products = productService.searchProducts(keyword, pageable);
-        return ResponseEntity.ok(products);
+        ResourceVersion version = ResourceVersion.of(products.getContent(), products.hasNext(), products.getTotalElements());
+        return ConditionalResponses.ok(request, version, () -> products);
     }
 
     @PostMapping("/batch")
@@ -98,6 +198,23 @@ public class ProductController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/reserve-batch")
+    public ResponseEntity<Boolean> reserveStockBatch(@Valid @RequestBody BatchInventoryRequest request) {
+        boolean reserved = productService.reserveStockBatch(request.getItems());
+        return ResponseEntity.ok(reserved);
+    }
+
+    @PostMapping("/release-batch")
+    public ResponseEntity<Void> releaseStockBatch(@Valid @RequestBody BatchInventoryRequest request) {
+        productService.releaseStockBatch(request.getItems());
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("/stock/check")
+    public ResponseEntity<List<StockAvailability>> checkStockBatch(@Valid @RequestBody BatchInventoryRequest request) {
+        return ResponseEntity.ok(productService.checkStockBatch(request.getItems()));
+    }
+
     @GetMapping("/{id}/stock")
     public ResponseEntity<Boolean> checkStock(
             @PathVariable Long id,
@@ -105,5 +222,8 @@ public class ProductController {
         boolean available = productService.checkStock(id, quantity);
         return ResponseEntity.ok(available);
     }
-}
 
+    private static ResourceVersion pageVersion(ProductPageResponse page) {
+        return ResourceVersion.of(page.getContent(), page.isHasNext(), page.getTotalElements());
+    }
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.productservice.controller;
+
+import com.ecommerce.productservice.dto.StockHoldRequest;
+import com.ecommerce.productservice.service.StockReservationService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/products/reservations")
+@RequiredArgsConstructor
+public class StockReservationController {
+
+    private final StockReservationService reservationService;
+
+    @PostMapping
+    public ResponseEntity<Boolean> hold(@Valid @RequestBody StockHoldRequest request) {
+        boolean held = reservationService.hold(request);
+        return ResponseEntity.ok(held);
+    }
+
+    @PostMapping("/{orderReference}/confirm")
+    public ResponseEntity<Boolean> confirm(@PathVariable String orderReference) {
+        boolean confirmed = reservationService.confirm(orderReference);
+        return ResponseEntity.ok(confirmed);
+    }
+
+    @PostMapping("/{orderReference}/release")
+    public ResponseEntity<Void> release(@PathVariable String orderReference) {
+        reservationService.release(orderReference);
+        return ResponseEntity.ok().build();
+    }
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.productservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchInventoryRequest {
+
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = 500, message = "At most 500 items are allowed")
+    @Valid
+    private List<InventoryRequest> items;
+}
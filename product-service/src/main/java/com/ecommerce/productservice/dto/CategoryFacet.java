@@ -0,0 +1,21 @@
+package com.ecommerce.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryFacet {
+
+    private Long categoryId;
+    private String name;
+    private Long parentId;
+    /**
+     * Товары категории вместе с подкатегориями
+     */
+    private long count;
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.productservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PriceFacet {
+
+    private BigDecimal from;
+    /**
+     * Верхняя граница (не включая); отсутствует у последней корзины
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal to;
+    private long count;
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductFilterResponse {
+
+    private List<ProductResponse> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private List<CategoryFacet> categories;
+    private List<PriceFacet> prices;
+}
@@ -0,0 +1,25 @@
+package com.ecommerce.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductImportReport {
+
+    private long received;
+    private long imported;
+    private long failed;
+    private List<ImportRowError> errors;
+    /**
+     * Ошибок больше, чем вошло в errors
+     */
+    private boolean errorsTruncated;
+    private long durationMillis;
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.productservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductPageResponse {
+
+    private List<ProductResponse> content;
+    private int size;
+    private boolean hasNext;
+    /**
+     * Непрозрачный токен следующей страницы - передается как cursor
+     */
+    private String nextCursor;
+    /**
+     * Общее число товаров; только при includeTotal=true
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalElements;
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.productservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,6 +19,8 @@ public class ProductResponse {
     private String name;
     private String description;
     private BigDecimal price;
+    // В выгрузке изменений остаток не передается
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private Integer quantity;
     private String sku;
     private CategoryResponse category;
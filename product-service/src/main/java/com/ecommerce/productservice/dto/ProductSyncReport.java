@@ -0,0 +1,33 @@
+package com.ecommerce.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSyncReport {
+
+    private long received;
+    private long created;
+    private long updated;
+    private long unchanged;
+    /**
+     * Товары, отсутствующие в фиде и снятые с продажи
+     */
+    private long deactivated;
+    /**
+     * Снятие с продажи пропущено: в фиде ошибки, нет корректных строк
+     * или пропала слишком большая часть каталога (причина в логе)
+     */
+    private boolean deactivationSkipped;
+    private long failed;
+    private List<ImportRowError> errors;
+    private boolean errorsTruncated;
+    private long durationMillis;
+}
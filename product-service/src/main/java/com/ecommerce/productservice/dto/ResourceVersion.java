@@ -0,0 +1,92 @@
+package com.ecommerce.productservice.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Валидаторы условного GET
+ *
+ * @param eTag         64-битный хеш id, updatedAt и остатков всех частей ответа
+ * @param lastModified наибольший updatedAt, мс; -1, если неизвестен или ответ содержит остаток
+ */
+public record ResourceVersion(String eTag, long lastModified) {
+
+    public static ResourceVersion of(ProductResponse product) {
+        return builder().add(product).build();
+    }
+
+    public static ResourceVersion of(CategoryResponse category) {
+        return builder().add(category).build();
+    }
+
+    /**
+     * Валидатор страницы: товары страницы по порядку, признак следующей страницы и общее число
+     */
+    public static ResourceVersion of(List<ProductResponse> products, boolean hasNext, Long total) {
+        Builder builder = builder();
+        products.forEach(builder::add);
+        return builder.add(hasNext ? 1 : 0)
+                .add(total != null ? total : -1)
+                .build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Накапливает части ответа; порядок добавления влияет на ETag
+     */
+    public static final class Builder {
+
+        private long hash = 0xcbf29ce484222325L;
+        private LocalDateTime lastModified;
+        private boolean stock;
+
+        private Builder() {
+        }
+
+        public Builder add(long value) {
+            hash = (hash ^ value) * 0x100000001b3L;
+            return this;
+        }
+
+        public Builder add(LocalDateTime time) {
+            if (time == null) {
+                return add(0L);
+            }
+            if (lastModified == null || time.isAfter(lastModified)) {
+                lastModified = time;
+            }
+            return add(time.toEpochSecond(ZoneOffset.UTC)).add(time.getNano());
+        }
+
+        /**
+         * Остаток меняется без сдвига updatedAt, поэтому входит только в ETag,
+         * а Last-Modified у такого ответа нет (If-Modified-Since вернул бы старый остаток)
+         */
+        public Builder addStock(Integer quantity) {
+            stock = true;
+            return add(quantity != null ? quantity : -1);
+        }
+
+        public Builder add(ProductResponse product) {
+            add(product.getId()).add(product.getUpdatedAt());
+            add(product.getCategory() != null ? product.getCategory().getUpdatedAt() : null);
+            return addStock(product.getQuantity());
+        }
+
+        public Builder add(CategoryResponse category) {
+            return add(category.getId()).add(category.getUpdatedAt());
+        }
+
+        public ResourceVersion build() {
+            long millis = lastModified != null && !stock
+                    ? lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                    : -1;
+            return new ResourceVersion("\"" + Long.toHexString(hash) + "\"", millis);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.productservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockHoldRequest {
+
+    @NotBlank(message = "Order reference is required")
+    @Size(max = 64, message = "Order reference must not exceed 64 characters")
+    private String orderReference;
+
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = 500, message = "At most 500 items are allowed")
+    @Valid
+    private List<InventoryRequest> items;
+}
@@ -12,7 +12,18 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        // Keyset-пагинация: (поле сортировки, id) для всего каталога и внутри категории
+        @Index(name = "idx_products_name_id", columnList = "name, id"),
+        @Index(name = "idx_products_price_id", columnList = "price, id"),
+        @Index(name = "idx_products_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_products_category_id_id", columnList = "category_id, id"),
+        @Index(name = "idx_products_category_id_name_id", columnList = "category_id, name, id"),
+        @Index(name = "idx_products_category_id_price_id", columnList = "category_id, price, id"),
+        @Index(name = "idx_products_category_id_created_at_id", columnList = "category_id, created_at, id"),
+        // Выгрузка изменений с updatedSince
+        @Index(name = "idx_products_updated_at_id", columnList = "updated_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -57,5 +68,18 @@ public class Product {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    /**
+     * Хеш полей каталога (ProductContentHash), пересчитывается при каждой записи товара
+     */
+    @Column(name = "content_hash")
+    private Long contentHash;
+
+    @PrePersist
+    @PreUpdate
+    void updateContentHash() {
+        contentHash = ProductContentHash.of(name, description, price,
+                category != null ? category.getId() : null, imageUrl);
+    }
 }
 
@@ -0,0 +1,47 @@
+package com.ecommerce.productservice.entity;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 64-битный хеш полей каталога товара: первые 8 байт SHA-256
+ * Используется при синхронизации с фидом поставщика, чтобы не перезаписывать
+ * неизменившиеся товары; SKU - ключ сопоставления и в хеш не входит.
+ * Остаток в хеш не входит: он меняется продажами и удержаниями, а не каталогом
+ */
+public final class ProductContentHash {
+
+    private static final byte[] NULL = {0};
+    private static final byte[] SEPARATOR = {1};
+
+    private ProductContentHash() {
+    }
+
+    public static long of(String name, String description, BigDecimal price,
+                          Long categoryId, String imageUrl) {
+        MessageDigest digest = sha256();
+        update(digest, name);
+        update(digest, description);
+        // 59.9 и 59.90 - одна цена
+        update(digest, price != null ? price.stripTrailingZeros().toPlainString() : null);
+        update(digest, categoryId != null ? categoryId.toString() : null);
+        update(digest, imageUrl);
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value != null ? value.getBytes(StandardCharsets.UTF_8) : NULL);
+        digest.update(SEPARATOR);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.ecommerce.productservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Накопленное число просмотров карточки товара
+ * Пишется пачками из TrendingProducts, а не на каждый просмотр
+ */
+@Entity
+@Table(name = "product_view_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductViewStats {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long views;
+
+    @Column(name = "last_viewed_at", nullable = false)
+    private LocalDateTime lastViewedAt;
+}
@@ -0,0 +1,14 @@
+package com.ecommerce.productservice.entity;
+
+public enum ReservationStatus {
+    /**
+     * Товар зарезервирован до expiresAt
+     */
+    HELD,
+    /**
+     * Заказ оплачен, резерв стал продажей
+     */
+    CONFIRMED,
+    RELEASED,
+    EXPIRED
+}
@@ -0,0 +1,54 @@
+package com.ecommerce.productservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись журнала резервирований: кто (заказ), что и до какого времени держит
+ */
+@Entity
+@Table(name = "stock_reservations", uniqueConstraints = {
+        // Одна строка на товар заказа: параллельный повтор удержания упирается в ограничение
+        @UniqueConstraint(name = "uk_stock_reservations_order_product", columnNames = {"order_reference", "product_id"})
+}, indexes = {
+        @Index(name = "idx_stock_reservations_status_expires_at", columnList = "status, expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Номер заказа в order-service
+     */
+    @Column(name = "order_reference", nullable = false, length = 64)
+    private String orderReference;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReservationStatus status;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.productservice.event;
+
+import com.ecommerce.productservice.dto.CategoryResponse;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Событие изменения категории (создание, изменение, мягкое удаление)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryChangedEvent {
+
+    /**
+     * Актуальное состояние категории без дочерних элементов
+     */
+    private CategoryResponse category;
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.productservice.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Событие подтверждения удержания заказа (продажа)
+ * Публикуется StockReservationService один раз на заказ
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderConfirmedEvent {
+
+    private String orderReference;
+    /**
+     * Товары заказа без повторов
+     */
+    private List<Long> productIds;
+}
@@ -0,0 +1,36 @@
+package com.ecommerce.productservice.event;
+
+import com.ecommerce.productservice.dto.ProductResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Событие изменения товара внутри сервиса
+ * Публикуется ProductService и обрабатывается после коммита транзакции
+ * индексами и кешами, которые держат данные о товарах в памяти
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductChangedEvent {
+
+    private Long productId;
+    private ChangeType changeType;
+    /**
+     * Актуальное состояние товара; null для DELETED и STOCK_CHANGED
+     */
+    private ProductResponse product;
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED,
+        /**
+         * Изменился только остаток (резервирование, возврат)
+         */
+        STOCK_CHANGED
+    }
+}
@@ -0,0 +1,7 @@
+package com.ecommerce.productservice.exception;
+
+public class IndexNotReadyException extends RuntimeException {
+    public IndexNotReadyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,152 @@
+package com.ecommerce.productservice.importer;
+
+import com.ecommerce.productservice.dto.CreateProductRequest;
+import com.ecommerce.productservice.exception.BadRequestException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * CSV (RFC 4180) с заголовком из имен полей CreateProductRequest:
+ * name, description, price, quantity, sku, categoryId, imageUrl
+ * Поля в кавычках могут содержать запятые, кавычки ("") и переводы строк
+ */
+final class CsvProductImportReader implements ProductImportReader {
+
+    private enum Column {
+        NAME, DESCRIPTION, PRICE, QUANTITY, SKU, CATEGORY_ID, IMAGE_URL;
+
+        static Column of(String header) {
+            String normalized = header.trim().replace("_", "").toLowerCase(Locale.ROOT);
+            for (Column column : values()) {
+                if (column.name().replace("_", "").toLowerCase(Locale.ROOT).equals(normalized)) {
+                    return column;
+                }
+            }
+            throw new BadRequestException("Unknown CSV column: " + header);
+        }
+    }
+
+    private final BufferedReader reader;
+    private long lineNumber;
+    private long recordLine;
+    private boolean unterminated;
+    private List<Column> columns;
+
+    CsvProductImportReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        if (columns == null) {
+            List<String> header = readRecord();
+            if (header == null) {
+                return null;
+            }
+            columns = new ArrayList<>();
+            for (String name : header) {
+                columns.add(Column.of(stripBom(name)));
+            }
+        }
+
+        List<String> values;
+        do {
+            values = readRecord();
+            if (values == null) {
+                return null;
+            }
+        } while (values.size() == 1 && values.getFirst().isBlank());
+
+        if (unterminated) {
+            return ImportRow.failed(recordLine, "Unterminated quoted field");
+        }
+        if (values.size() != columns.size()) {
+            return ImportRow.failed(recordLine,
+                    "Expected " + columns.size() + " columns but found " + values.size());
+        }
+
+        CreateProductRequest request = new CreateProductRequest();
+        for (int i = 0; i < columns.size(); i++) {
+            String value = values.get(i).isBlank() ? null : values.get(i).trim();
+            Column column = columns.get(i);
+            try {
+                switch (column) {
+                    case NAME -> request.setName(value);
+                    case DESCRIPTION -> request.setDescription(value);
+                    case PRICE -> request.setPrice(value != null ? new BigDecimal(value) : null);
+                    case QUANTITY -> request.setQuantity(value != null ? Integer.valueOf(value) : null);
+                    case SKU -> request.setSku(value);
+                    case CATEGORY_ID -> request.setCategoryId(value != null ? Long.valueOf(value) : null);
+                    case IMAGE_URL -> request.setImageUrl(value);
+                }
+            } catch (NumberFormatException ex) {
+                return ImportRow.failed(recordLine, "Invalid number in column " + column.name().toLowerCase(Locale.ROOT) + ": " + value);
+            }
+        }
+        return ImportRow.parsed(recordLine, request);
+    }
+
+    /**
+     * Читает одну запись, продолжая на следующих строках внутри кавычек
+     * recordLine - номер первой строки записи
+     */
+    private List<String> readRecord() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        recordLine = ++lineNumber;
+        unterminated = false;
+
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    break;
+                }
+                line = reader.readLine();
+                if (line == null) {
+                    unterminated = true;
+                    break;
+                }
+                lineNumber++;
+                value.append('\n');
+                i = 0;
+                continue;
+            }
+
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i < line.length() && line.charAt(i) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private static String stripBom(String value) {
+        return !value.isEmpty() && value.charAt(0) == '\uFEFF' ? value.substring(1) : value;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.productservice.importer;
+
+import com.ecommerce.productservice.dto.CreateProductRequest;
+
+/**
+ * Строка импорта: разобранный товар либо ошибка разбора
+ *
+ * @param line номер строки во входных данных (с 1)
+ */
+public record ImportRow(long line, CreateProductRequest request, String error) {
+
+    static ImportRow parsed(long line, CreateProductRequest request) {
+        return new ImportRow(line, request, null);
+    }
+
+    static ImportRow failed(long line, String error) {
+        return new ImportRow(line, null, error);
+    }
+
+    public boolean isFailed() {
+        return error != null;
+    }
+}
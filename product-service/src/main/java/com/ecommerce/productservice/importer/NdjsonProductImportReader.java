@@ -0,0 +1,41 @@
+package com.ecommerce.productservice.importer;
+
+import com.ecommerce.productservice.dto.CreateProductRequest;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Один JSON-объект CreateProductRequest на строку, пустые строки пропускаются
+ */
+final class NdjsonProductImportReader implements ProductImportReader {
+
+    private final BufferedReader reader;
+    private final JsonMapper jsonMapper;
+    private long lineNumber;
+
+    NdjsonProductImportReader(BufferedReader reader, JsonMapper jsonMapper) {
+        this.reader = reader;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isBlank());
+
+        try {
+            return ImportRow.parsed(lineNumber, jsonMapper.readValue(line, CreateProductRequest.class));
+        } catch (JacksonException ex) {
+            return ImportRow.failed(lineNumber, "Malformed JSON: " + ex.getOriginalMessage());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.productservice.importer;
+
+import com.ecommerce.productservice.exception.BadRequestException;
+
+import org.springframework.http.MediaType;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Построчное чтение товаров из потока запроса
+ * В памяти держится только текущая строка, поэтому размер файла не ограничен
+ */
+public interface ProductImportReader {
+
+    MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    /**
+     * @return следующая строка или null в конце потока
+     */
+    ImportRow next() throws IOException;
+
+    static ProductImportReader open(MediaType contentType, InputStream input, JsonMapper jsonMapper) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input,
+                contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8));
+        if (NDJSON.includes(contentType)) {
+            return new NdjsonProductImportReader(reader, jsonMapper);
+        }
+        if (CSV.includes(contentType)) {
+            return new CsvProductImportReader(reader);
+        }
+        throw new BadRequestException("Unsupported import format: " + contentType);
+    }
+}
@@ -0,0 +1,293 @@
+package com.ecommerce.productservice.inventory;
+
+import com.ecommerce.productservice.event.ProductChangedEvent;
+import com.ecommerce.productservice.exception.InsufficientStockException;
+import com.ecommerce.productservice.exception.InventoryUnavailableException;
+import com.ecommerce.productservice.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Режим "горячих" товаров для распродаж
+ * Экземпляр забирает из БД остаток порциями (claim-size) в локальный резерв,
+ * разделенный на полосы, и резервирует из него без обращения к БД.
+ * Остаток в БД - это остаток, не забранный ни одним экземпляром, поэтому
+ * несколько экземпляров сервиса не могут продать больше, чем есть на складе.
+ * Операции с резервом пишутся в журнал до ответа вызывающему; при старте резерв,
+ * оставшийся после аварийной остановки, возвращается в БД. Журнал ошибается только
+ * в сторону недопродажи: CLAIM пишется после списания в БД, RETURN - до возврата в БД,
+ * RESERVE - до подтверждения резервирования. Пока журнал неисправен, резервирования
+ * горячих товаров отклоняются.
+ * Обмен остатком с БД (CLAIM, RETURN) выполняется в собственной транзакции:
+ * откат транзакции вызывающего не отменяет списание, уже учтенное в резерве
+ */
+@Component
+@Slf4j
+public class HotStockInventory {
+
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate ownTransaction;
+
+    private final boolean enabled;
+    private final List<Long> configuredProductIds;
+    private final int stripes;
+    private final int claimSize;
+    private final Path journalFile;
+    private final int journalQueueCapacity;
+
+    private final Map<Long, StripedCounter> reserves = new ConcurrentHashMap<>();
+    private InventoryJournal journal;
+
+    public HotStockInventory(ProductRepository productRepository,
+                             ApplicationEventPublisher eventPublisher,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${products.inventory.hot.enabled:false}") boolean enabled,
+                             @Value("${products.inventory.hot.product-ids:}") List<Long> configuredProductIds,
+                             @Value("${products.inventory.hot.stripes:0}") int stripes,
+                             @Value("${products.inventory.hot.claim-size:100}") int claimSize,
+                             @Value("${products.inventory.hot.journal-file:data/inventory.journal}") String journalFile,
+                             @Value("${products.inventory.hot.journal-queue-capacity:65536}") int journalQueueCapacity) {
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.configuredProductIds = configuredProductIds;
+        this.stripes = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+        this.claimSize = claimSize;
+        this.journalFile = Path.of(journalFile);
+        this.journalQueueCapacity = journalQueueCapacity;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        journal = new InventoryJournal(journalFile, journalQueueCapacity);
+        Map<Long, Long> unreturned = journal.recover();
+        journal.start();
+        unreturned.forEach((productId, amount) -> {
+            // RETURN на диске до возврата в БД: сбой между ними теряет остаток, но не возвращает его дважды
+            journal.append(InventoryJournal.Operation.RETURN, productId, amount);
+            productRepository.increaseQuantity(productId, Math.toIntExact(amount));
+            publishStockChanged(productId);
+            log.warn("Returned {} units of product {} left in local reserve by previous run", amount, productId);
+        });
+
+        configuredProductIds.forEach(this::enable);
+        log.info("Hot stock inventory: products={}, stripes={}, claimSize={}",
+                configuredProductIds, stripes, claimSize);
+    }
+
+    public boolean isHot(Long productId) {
+        return enabled && reserves.containsKey(productId);
+    }
+
+    public void enable(Long productId) {
+        if (!enabled) {
+            throw new IllegalStateException("Hot stock inventory is disabled");
+        }
+        reserves.computeIfAbsent(productId, id -> new StripedCounter(stripes));
+    }
+
+    /**
+     * Выключает режим для товара и возвращает локальный резерв в БД
+     */
+    public void disable(Long productId) {
+        StripedCounter counter = reserves.remove(productId);
+        if (counter != null) {
+            synchronized (counter) {
+                try {
+                    returnToDatabase(productId, counter);
+                } catch (InventoryUnavailableException e) {
+                    // Резерв не возвращен - товар остается горячим
+                    reserves.putIfAbsent(productId, counter);
+                    throw e;
+                }
+            }
+        }
+    }
+
+    public void reserve(Long productId, int quantity) {
+        StripedCounter counter = reserves.get(productId);
+        if (counter == null) {
+            // Режим выключили между isHot и вызовом
+            if (productRepository.decreaseQuantity(productId, quantity) == 0) {
+                throw new InsufficientStockException("Insufficient stock for product: " + productId);
+            }
+            return;
+        }
+        requireHealthyJournal(productId);
+        while (!counter.tryTake(quantity)) {
+            if (!refill(productId, counter, quantity)) {
+                throw new InsufficientStockException("Insufficient stock for product: " + productId);
+            }
+        }
+        try {
+            journal.append(InventoryJournal.Operation.RESERVE, productId, quantity);
+        } catch (UncheckedIOException e) {
+            // Резервирование не подтверждено - единицы остаются в резерве
+            counter.add(quantity);
+            throw new InventoryUnavailableException("Inventory journal is unavailable, product: " + productId, e);
+        }
+    }
+
+    /**
+     * Возвращает резерв по отмененному заказу; внутри транзакции - только после ее коммита,
+     * чтобы откат не оставил в резерве единицы, которые по-прежнему удержаны
+     */
+    public void release(Long productId, int quantity) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cancelReservation(productId, quantity);
+                }
+            });
+            return;
+        }
+        cancelReservation(productId, quantity);
+    }
+
+    /**
+     * Сразу возвращает в резерв единицы неподтвержденного резервирования
+     * (ошибка или откат транзакции, в которой резервировали)
+     */
+    public void cancelReservation(Long productId, int quantity) {
+        StripedCounter counter = reserves.get(productId);
+        if (counter == null) {
+            productRepository.increaseQuantity(productId, quantity);
+            return;
+        }
+        try {
+            journal.append(InventoryJournal.Operation.RELEASE, productId, quantity);
+            counter.add(quantity);
+        } catch (UncheckedIOException e) {
+            // Без записи RELEASE единицы нельзя вернуть в резерв: после сбоя они ушли бы в БД второй раз
+            log.error("Failed to journal release, {} units of product {} are withheld from sale",
+                    quantity, productId, e);
+        }
+    }
+
+    /**
+     * Количество в локальном резерве (в дополнение к остатку в БД)
+     */
+    public long localReserve(Long productId) {
+        StripedCounter counter = reserves.get(productId);
+        return counter != null ? counter.sum() : 0;
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        boolean returned = journal.isHealthy();
+        for (Long productId : List.copyOf(reserves.keySet())) {
+            try {
+                disable(productId);
+            } catch (RuntimeException e) {
+                log.error("Failed to return local reserve of product {}", productId, e);
+                returned = false;
+            }
+        }
+        journal.close();
+        // Журнал с невозвращенным резервом нужен для восстановления при следующем старте
+        if (returned) {
+            journal.delete();
+        }
+    }
+
+    /**
+     * Забирает из БД очередную порцию остатка; одновременно только один поток на товар
+     */
+    private boolean refill(Long productId, StripedCounter counter, int needed) {
+        synchronized (counter) {
+            // Пока ждали блокировку, резерв мог пополнить другой поток
+            if (counter.sum() >= needed) {
+                return true;
+            }
+
+            requireHealthyJournal(productId);
+            int shortfall = needed - (int) counter.sum();
+            int claimed = ownTransaction.execute(status -> claimFromDatabase(productId, shortfall));
+            if (claimed == 0) {
+                return false;
+            }
+
+            try {
+                journal.append(InventoryJournal.Operation.CLAIM, productId, claimed);
+            } catch (UncheckedIOException e) {
+                // Списание в БД уже выполнено; без записи CLAIM остаток не выдаем и не возвращаем
+                log.error("Failed to journal claim, {} units of product {} are withheld from sale",
+                        claimed, productId, e);
+                throw new InventoryUnavailableException("Inventory journal is unavailable, product: " + productId, e);
+            }
+            counter.add(claimed);
+            publishStockChanged(productId);
+            return true;
+        }
+    }
+
+    private void returnToDatabase(Long productId, StripedCounter counter) {
+        long amount = counter.drain();
+        if (amount <= 0) {
+            return;
+        }
+        try {
+            journal.append(InventoryJournal.Operation.RETURN, productId, amount);
+        } catch (UncheckedIOException e) {
+            counter.add(amount);
+            throw new InventoryUnavailableException("Inventory journal is unavailable, product: " + productId, e);
+        }
+        ownTransaction.executeWithoutResult(status ->
+                productRepository.increaseQuantity(productId, Math.toIntExact(amount)));
+        publishStockChanged(productId);
+    }
+
+    /**
+     * Списывает в БД порцию остатка, а если ее нет - только недостающее; 0, если не хватает и его
+     */
+    private int claimFromDatabase(Long productId, int shortfall) {
+        int claimed = Math.max(claimSize, shortfall);
+        if (productRepository.decreaseQuantity(productId, claimed) > 0) {
+            return claimed;
+        }
+        if (shortfall > 0 && productRepository.decreaseQuantity(productId, shortfall) > 0) {
+            return shortfall;
+        }
+        return 0;
+    }
+
+    private void requireHealthyJournal(Long productId) {
+        if (!journal.isHealthy()) {
+            throw new InventoryUnavailableException("Inventory journal is unavailable, product: " + productId);
+        }
+    }
+
+    private void publishStockChanged(Long productId) {
+        eventPublisher.publishEvent(ProductChangedEvent.builder()
+                .productId(productId)
+                .changeType(ProductChangedEvent.ChangeType.STOCK_CHANGED)
+                .build());
+    }
+}
@@ -0,0 +1,265 @@
+package com.ecommerce.productservice.inventory;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Журнал операций с локальным резервом (write-ahead log)
+ * Записи ставятся в очередь и сбрасываются на диск фоновым потоком пачками
+ * (один fsync на пачку); append возвращается только после fsync своей записи.
+ * По журналу после сбоя восстанавливается остаток, который экземпляр забрал
+ * из БД, но не успел продать. После каждого обмена остатком с БД (CLAIM, RETURN)
+ * журнал сжимается до одной записи CLAIM на товар с текущим резервом, поэтому
+ * его размер ограничен операциями с последнего обмена. После первой ошибки записи
+ * журнал неисправен и отклоняет все операции до перезапуска
+ */
+@Slf4j
+public class InventoryJournal implements Closeable {
+
+    public enum Operation {
+        /**
+         * Остаток забран из БД в локальный резерв
+         */
+        CLAIM,
+        RESERVE,
+        RELEASE,
+        /**
+         * Остаток возвращен из локального резерва в БД
+         */
+        RETURN
+    }
+
+    private record Entry(Operation operation, long productId, long amount, CompletableFuture<Void> written) {
+    }
+
+    private static final Entry STOP = new Entry(Operation.RETURN, -1, 0, new CompletableFuture<>());
+    private static final int MAX_BATCH = 4096;
+
+    private final Path file;
+    private final Path compactFile;
+    private final BlockingQueue<Entry> queue;
+    private final Thread writer;
+    private DataOutputStream output;
+    private FileOutputStream fileOutput;
+
+    /**
+     * Резерв по товарам согласно записанному на диск; после start меняется только потоком записи
+     */
+    private final Map<Long, Long> balances = new HashMap<>();
+    private boolean recovered;
+    private volatile IOException failure;
+    private volatile boolean closed;
+
+    public InventoryJournal(Path file, int queueCapacity) {
+        this.file = file;
+        this.compactFile = file.resolveSibling(file.getFileName() + ".compact");
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = new Thread(this::writeLoop, "inventory-journal");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Читает журнал предыдущего запуска и возвращает локальный резерв по товарам
+     * Неполная последняя запись (сбой во время записи) игнорируется
+     */
+    public Map<Long, Long> recover() throws IOException {
+        balances.clear();
+        recovered = true;
+        if (!Files.exists(file)) {
+            return Map.of();
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                int operation = input.read();
+                if (operation < 0) {
+                    break;
+                }
+                long productId = input.readLong();
+                long amount = input.readLong();
+                apply(Operation.values()[operation], productId, amount);
+            }
+        } catch (EOFException ex) {
+            log.warn("Inventory journal {} ends with a partial record", file);
+        }
+
+        balances.values().removeIf(balance -> balance <= 0);
+        return Map.copyOf(balances);
+    }
+
+    /**
+     * Открывает журнал для дозаписи: прочитанные recover записи (без неполной последней)
+     * сжимаются в снимок резерва, возврат остатка по ним отмечается записью RETURN
+     */
+    public void start() throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        // Снимок без прочитанных записей потерял бы резерв предыдущего запуска
+        if (!recovered) {
+            recover();
+        }
+        compact();
+        writer.start();
+    }
+
+    public boolean isHealthy() {
+        return failure == null;
+    }
+
+    /**
+     * Записывает операцию и ждет ее fsync
+     *
+     * @throws UncheckedIOException если журнал неисправен или запись не удалась
+     */
+    public void append(Operation operation, long productId, long amount) {
+        IOException current = failure;
+        if (closed) {
+            throw new UncheckedIOException(new IOException("Inventory journal " + file + " is closed"));
+        }
+        if (current != null) {
+            throw new UncheckedIOException("Inventory journal " + file + " is unavailable", current);
+        }
+
+        Entry entry = new Entry(operation, productId, amount, new CompletableFuture<>());
+        try {
+            queue.put(entry);
+            entry.written().get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted while writing inventory journal"));
+        } catch (ExecutionException ex) {
+            throw new UncheckedIOException("Failed to write inventory journal " + file,
+                    (IOException) ex.getCause());
+        }
+    }
+
+    /**
+     * Дописывает очередь на диск и закрывает журнал
+     * Если все резервы возвращены в БД, файл можно удалить
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (!writer.isAlive()) {
+            return;
+        }
+        try {
+            queue.put(STOP);
+            writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>(MAX_BATCH);
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+
+                boolean exchanged = false;
+                if (failure == null) {
+                    for (Entry entry : batch) {
+                        if (entry != STOP) {
+                            write(output, entry.operation(), entry.productId(), entry.amount());
+                            apply(entry.operation(), entry.productId(), entry.amount());
+                            exchanged |= entry.operation() == Operation.CLAIM || entry.operation() == Operation.RETURN;
+                        }
+                    }
+                    output.flush();
+                    fileOutput.getChannel().force(false);
+                }
+                complete(batch);
+                if (exchanged) {
+                    compact();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (IOException ex) {
+                // Неизвестно, какие записи пачки попали на диск, поэтому дальше писать нельзя
+                log.error("Failed to write inventory journal {}", file, ex);
+                failure = ex;
+                complete(batch);
+            } finally {
+                running &= !batch.contains(STOP);
+                batch.clear();
+            }
+        }
+
+        // Записи, поставленные в очередь после остановки, не записаны
+        queue.forEach(entry -> entry.written().completeExceptionally(
+                new IOException("Inventory journal " + file + " is closed")));
+        try {
+            output.close();
+        } catch (IOException ex) {
+            log.warn("Failed to close inventory journal {}", file, ex);
+        }
+    }
+
+    /**
+     * Заменяет журнал снимком резерва: новый файл записывается рядом, синхронизируется
+     * и атомарно подменяет старый, поэтому сбой в любой момент оставляет один из двух журналов
+     */
+    private void compact() throws IOException {
+        balances.values().removeIf(balance -> balance <= 0);
+        try (FileOutputStream snapshotOutput = new FileOutputStream(compactFile.toFile())) {
+            DataOutputStream snapshot = new DataOutputStream(new BufferedOutputStream(snapshotOutput));
+            for (Map.Entry<Long, Long> balance : balances.entrySet()) {
+                write(snapshot, Operation.CLAIM, balance.getKey(), balance.getValue());
+            }
+            snapshot.flush();
+            snapshotOutput.getChannel().force(false);
+        }
+        if (output != null) {
+            output.close();
+        }
+        Files.move(compactFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        fileOutput = new FileOutputStream(file.toFile(), true);
+        output = new DataOutputStream(new BufferedOutputStream(fileOutput, 64 * 1024));
+    }
+
+    private static void write(DataOutputStream out, Operation operation, long productId, long amount) throws IOException {
+        out.writeByte(operation.ordinal());
+        out.writeLong(productId);
+        out.writeLong(amount);
+    }
+
+    private void apply(Operation operation, long productId, long amount) {
+        long delta = switch (operation) {
+            case CLAIM, RELEASE -> amount;
+            case RESERVE, RETURN -> -amount;
+        };
+        balances.merge(productId, delta, Long::sum);
+    }
+
+    private void complete(List<Entry> batch) {
+        IOException current = failure;
+        for (Entry entry : batch) {
+            if (current == null) {
+                entry.written().complete(null);
+            } else {
+                entry.written().completeExceptionally(current);
+            }
+        }
+    }
+}
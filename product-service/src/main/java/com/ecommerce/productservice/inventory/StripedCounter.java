@@ -0,0 +1,107 @@
+package com.ecommerce.productservice.inventory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Остаток товара, разделенный на полосы (stripes)
+ * Поток списывает CAS-ом из "своей" полосы, а при ее исчерпании забирает
+ * остаток из соседних, поэтому параллельные резервирования одного товара
+ * не конкурируют за одну ячейку памяти
+ */
+public class StripedCounter {
+
+    /**
+     * Шаг между полосами в элементах массива: 8 * 8 байт = кеш-линия,
+     * чтобы соседние полосы не попадали в одну линию (false sharing)
+     */
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells;
+    private final int stripes;
+
+    public StripedCounter(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("stripes must be positive");
+        }
+        this.stripes = stripes;
+        this.cells = new AtomicLongArray(stripes * PADDING);
+    }
+
+    public void add(long amount) {
+        cells.addAndGet(home() * PADDING, amount);
+    }
+
+    /**
+     * Списывает amount целиком или ничего
+     */
+    public boolean tryTake(long amount) {
+        int home = home();
+        for (int i = 0; i < stripes; i++) {
+            if (tryTakeFrom((home + i) % stripes, amount)) {
+                return true;
+            }
+        }
+
+        // Ни в одной полосе нет нужного количества - собираем по частям
+        long taken = 0;
+        for (int i = 0; i < stripes && taken < amount; i++) {
+            taken += takeUpTo((home + i) % stripes, amount - taken);
+        }
+        if (taken == amount) {
+            return true;
+        }
+        if (taken > 0) {
+            add(taken);
+        }
+        return false;
+    }
+
+    public long sum() {
+        long total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.get(i * PADDING);
+        }
+        return total;
+    }
+
+    /**
+     * Обнуляет все полосы и возвращает снятое количество
+     */
+    public long drain() {
+        long total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.getAndSet(i * PADDING, 0);
+        }
+        return total;
+    }
+
+    private boolean tryTakeFrom(int stripe, long amount) {
+        int index = stripe * PADDING;
+        long current;
+        do {
+            current = cells.get(index);
+            if (current < amount) {
+                return false;
+            }
+        } while (!cells.compareAndSet(index, current, current - amount));
+        return true;
+    }
+
+    private long takeUpTo(int stripe, long max) {
+        int index = stripe * PADDING;
+        long current;
+        long taken;
+        do {
+            current = cells.get(index);
+            taken = Math.min(current, max);
+            if (taken <= 0) {
+                return 0;
+            }
+        } while (!cells.compareAndSet(index, current, current - taken));
+        return taken;
+    }
+
+    private int home() {
+        return (int) Math.floorMod(Thread.currentThread().threadId(), (long) stripes);
+    }
+}
@@ -0,0 +1,140 @@
+package com.ecommerce.productservice.recommendation;
+
+import com.ecommerce.productservice.event.OrderConfirmedEvent;
+import com.ecommerce.productservice.event.ProductChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Товары, которые покупают вместе, по подтвержденным заказам
+ * Для каждого товара хранится не больше max-neighbours соседей с затухающим весом
+ * (вытеснение Space-Saving), число товаров ограничено max-products (Caffeine).
+ * Заказ из k товаров обновляет k списков, стоимость не зависит от истории заказов.
+ * Данные локальны для экземпляра сервиса и после перезапуска набираются заново
+ */
+@Component
+public class FrequentlyBoughtTogether {
+
+    public static final int MAX_LIMIT = 20;
+
+    /**
+     * Большие заказы (оптовые, тестовые) учитываются по первым позициям
+     */
+    private static final int MAX_BASKET_SIZE = 50;
+
+    /**
+     * Сосед с меньшим весом считается забытым
+     */
+    private static final double MIN_WEIGHT = 0.01;
+
+    private final Cache<Long, Neighbours> neighbours;
+    private final int maxNeighbours;
+    private final long halfLifeMillis;
+
+    public FrequentlyBoughtTogether(@Value("${products.recommendations.max-products:100000}") long maxProducts,
+                                    @Value("${products.recommendations.max-neighbours:20}") int maxNeighbours,
+                                    @Value("${products.recommendations.half-life:2592000000}") long halfLifeMillis) {
+        this.neighbours = Caffeine.newBuilder()
+                .maximumSize(maxProducts)
+                .build();
+        this.maxNeighbours = Math.max(maxNeighbours, MAX_LIMIT);
+        this.halfLifeMillis = halfLifeMillis;
+    }
+
+    public void recordOrder(Collection<Long> productIds) {
+        List<Long> basket = productIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .limit(MAX_BASKET_SIZE)
+                .toList();
+        if (basket.size() < 2) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        for (Long productId : basket) {
+            neighbours.get(productId, key -> new Neighbours(now))
+                    .add(productId, basket, now);
+        }
+    }
+
+    /**
+     * До limit соседей товара по убыванию веса без обращения к БД
+     */
+    public List<Long> related(Long productId, int limit) {
+        Neighbours current = neighbours.getIfPresent(productId);
+        return current != null ? current.top(limit) : List.of();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderConfirmed(OrderConfirmedEvent event) {
+        recordOrder(event.getProductIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Ссылки на удаленный товар из чужих списков отфильтровываются при выдаче
+        if (event.getChangeType() == ProductChangedEvent.ChangeType.DELETED) {
+            neighbours.invalidate(event.getProductId());
+        }
+    }
+
+    private final class Neighbours {
+
+        private final Map<Long, Double> weights = new HashMap<>();
+        private long decayedAt;
+
+        private Neighbours(long now) {
+            this.decayedAt = now;
+        }
+
+        synchronized void add(Long productId, List<Long> basket, long now) {
+            decay(now);
+            for (Long other : basket) {
+                if (other.equals(productId)) {
+                    continue;
+                }
+                if (weights.containsKey(other) || weights.size() < maxNeighbours) {
+                    weights.merge(other, 1.0, Double::sum);
+                } else {
+                    // Space-Saving: новый сосед наследует вес самого слабого,
+                    // поэтому часто покупаемые вместе товары не теряются
+                    Map.Entry<Long, Double> weakest = weights.entrySet().stream()
+                            .min(Map.Entry.comparingByValue())
+                            .orElseThrow();
+                    weights.remove(weakest.getKey());
+                    weights.put(other, weakest.getValue() + 1.0);
+                }
+            }
+        }
+
+        synchronized List<Long> top(int limit) {
+            // Затухание одинаково для всех соседей товара и не меняет порядок
+            return weights.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        }
+
+        private void decay(long now) {
+            if (now <= decayedAt) {
+                return;
+            }
+            double factor = Math.pow(0.5, (double) (now - decayedAt) / halfLifeMillis);
+            weights.replaceAll((id, weight) -> weight * factor);
+            weights.values().removeIf(weight -> weight < MIN_WEIGHT);
+            decayedAt = now;
+        }
+    }
+}
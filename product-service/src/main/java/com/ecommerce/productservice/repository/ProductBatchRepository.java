@@ -0,0 +1,122 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.dto.CreateProductRequest;
+import com.ecommerce.productservice.entity.ProductContentHash;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Пакетная запись товаров через JDBC batch в обход persistence context
+ * Hibernate не группирует вставки с IDENTITY-ключом, а массовой загрузке не нужны
+ * управляемые сущности; вызывается внутри транзакции, события публикует вызывающий
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO products " +
+            "(name, description, price, quantity, sku, category_id, image_url, active, content_hash, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, true, ?, ?, ?)";
+
+    // Остаток задается фидом только для новых товаров: у существующих его ведут
+    // продажи, удержания и локальный резерв горячих товаров
+    private static final String UPDATE_SQL = "UPDATE products SET " +
+            "name = ?, description = ?, price = ?, category_id = ?, image_url = ?, " +
+            "active = true, content_hash = ?, updated_at = ? WHERE id = ?";
+
+    private static final String DEACTIVATE_SQL = "UPDATE products SET active = false, updated_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return сгенерированные id в порядке products
+     */
+    public long[] insert(List<CreateProductRequest> products, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        CreateProductRequest product = products.get(i);
+                        ps.setString(1, product.getName());
+                        ps.setObject(2, product.getDescription(), Types.VARCHAR);
+                        ps.setBigDecimal(3, product.getPrice());
+                        ps.setInt(4, product.getQuantity());
+                        ps.setObject(5, product.getSku(), Types.VARCHAR);
+                        ps.setObject(6, product.getCategoryId(), Types.BIGINT);
+                        ps.setObject(7, product.getImageUrl(), Types.VARCHAR);
+                        ps.setLong(8, contentHash(product));
+                        ps.setTimestamp(9, timestamp);
+                        ps.setTimestamp(10, timestamp);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return products.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        long[] ids = new long[products.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = ((Number) keys.get(i).values().iterator().next()).longValue();
+        }
+        return ids;
+    }
+
+    /**
+     * Заменяет поля каталога (кроме остатка) и активирует товары
+     */
+    public void update(List<Long> ids, List<CreateProductRequest> products, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+
+        jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                CreateProductRequest product = products.get(i);
+                ps.setString(1, product.getName());
+                ps.setObject(2, product.getDescription(), Types.VARCHAR);
+                ps.setBigDecimal(3, product.getPrice());
+                ps.setObject(4, product.getCategoryId(), Types.BIGINT);
+                ps.setObject(5, product.getImageUrl(), Types.VARCHAR);
+                ps.setLong(6, contentHash(product));
+                ps.setTimestamp(7, timestamp);
+                ps.setLong(8, ids.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ids.size();
+            }
+        });
+    }
+
+    public void deactivate(List<Long> ids, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(DEACTIVATE_SQL, ids, ids.size(), (ps, id) -> {
+            ps.setTimestamp(1, timestamp);
+            ps.setLong(2, id);
+        });
+    }
+
+    public static long contentHash(CreateProductRequest product) {
+        return ProductContentHash.of(product.getName(), product.getDescription(), product.getPrice(),
+                product.getCategoryId(), product.getImageUrl());
+    }
+}
@@ -0,0 +1,30 @@
+package com.ecommerce.productservice.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Строка выгрузки изменений: без остатка, так как резервирования не сдвигают updatedAt
+ */
+public interface ProductChangeRow {
+
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    BigDecimal getPrice();
+
+    String getSku();
+
+    Long getCategoryId();
+
+    String getImageUrl();
+
+    Boolean getActive();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,6 @@
+package com.ecommerce.productservice.repository;
+
+public interface ProductExportRow extends ProductChangeRow {
+
+    Integer getQuantity();
+}
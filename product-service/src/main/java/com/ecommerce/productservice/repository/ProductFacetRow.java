@@ -0,0 +1,16 @@
+package com.ecommerce.productservice.repository;
+
+import java.math.BigDecimal;
+
+public interface ProductFacetRow {
+
+    Long getId();
+
+    BigDecimal getPrice();
+
+    Integer getQuantity();
+
+    Long getCategoryId();
+
+    Boolean getActive();
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.entity.Product;
+
+import java.util.List;
+
+public interface ProductKeysetRepository {
+
+    /**
+     * Страница активных товаров после (afterKey, afterId) в порядке (sortKey, id)
+     * Категория загружается тем же запросом
+     *
+     * @param categoryId null - все категории
+     * @param afterKey   null - первая страница
+     */
+    List<Product> findActivePage(Long categoryId, ProductSortKey sortKey, boolean descending,
+                                 Object afterKey, Long afterId, int limit);
+}
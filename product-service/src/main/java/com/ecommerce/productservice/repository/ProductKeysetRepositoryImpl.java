@@ -0,0 +1,53 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.List;
+
+public class ProductKeysetRepositoryImpl implements ProductKeysetRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Product> findActivePage(Long categoryId, ProductSortKey sortKey, boolean descending,
+                                        Object afterKey, Long afterId, int limit) {
+        String attribute = "p." + sortKey.getAttribute();
+        String direction = descending ? "DESC" : "ASC";
+
+        StringBuilder jpql = new StringBuilder("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.active = true");
+        if (categoryId != null) {
+            jpql.append(" AND p.category.id = :categoryId");
+        }
+        if (afterKey != null) {
+            // Сравнение кортежей: Postgres использует индекс (поле, id) как одну границу диапазона
+            if (sortKey == ProductSortKey.ID) {
+                jpql.append(" AND p.id ").append(descending ? "<" : ">").append(" :afterId");
+            } else {
+                jpql.append(" AND (").append(attribute).append(", p.id) ")
+                        .append(descending ? "<" : ">").append(" (:afterKey, :afterId)");
+            }
+        }
+        jpql.append(" ORDER BY ");
+        if (sortKey != ProductSortKey.ID) {
+            jpql.append(attribute).append(' ').append(direction).append(", ");
+        }
+        jpql.append("p.id ").append(direction);
+
+        TypedQuery<Product> query = entityManager.createQuery(jpql.toString(), Product.class)
+                .setMaxResults(limit);
+        if (categoryId != null) {
+            query.setParameter("categoryId", categoryId);
+        }
+        if (afterKey != null) {
+            query.setParameter("afterId", afterId);
+            if (sortKey != ProductSortKey.ID) {
+                query.setParameter("afterKey", afterKey);
+            }
+        }
+        return query.getResultList();
+    }
+}
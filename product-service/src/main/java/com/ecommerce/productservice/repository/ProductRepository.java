@@ -1,39 +1,135 @@
 package com.ecommerce.productservice.repository;
 
 import com.ecommerce.productservice.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductKeysetRepository {
 
     Optional<Product> findBySku(String sku);
 
+    @EntityGraph(attributePaths = "category")
+    Optional<Product> findWithCategoryById(Long id);
+
+    @EntityGraph(attributePaths = "category")
+    Optional<Product> findWithCategoryBySku(String sku);
+
+    @EntityGraph(attributePaths = "category")
+    List<Product> findWithCategoryByIdIn(Collection<Long> ids);
+
     boolean existsBySku(String sku);
 
-    Page<Product> findByActiveTrue(Pageable pageable);
+    @Query("SELECT p.sku FROM Product p WHERE p.sku IN :skus")
+    List<String> findExistingSkus(@Param("skus") Collection<String> skus);
+
+    long countByActiveTrue();
 
-    Page<Product> findByCategoryIdAndActiveTrue(Long categoryId, Pageable pageable);
+    long countByCategoryIdAndActiveTrue(Long categoryId);
 
-    @Query("SELECT p FROM Product p WHERE p.active = true AND " +
+    // Списочные запросы подтягивают категорию join'ом, чтобы маппинг в ProductResponse
+    // не делал отдельный SELECT на каждую строку страницы; parentId категории
+    // читается из внешнего ключа без загрузки родителя
+
+    @EntityGraph(attributePaths = "category")
+    @Query(value = "SELECT p FROM Product p WHERE p.active = true AND " +
             "(LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+            "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')))",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.active = true AND " +
+                    "(LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+                    "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
     Page<Product> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
 
-    List<Product> findByIdIn(List<Long> ids);
+    /**
+     * Потоковое чтение полей для построения поискового индекса
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description, p.sku AS sku " +
+            "FROM Product p WHERE p.active = true")
+    Stream<ProductSearchRow> streamActiveForSearch();
+
+    /**
+     * Потоковое чтение полей для построения фасетного индекса
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.id AS id, p.price AS price, p.quantity AS quantity, p.category.id AS categoryId, " +
+            "p.active AS active FROM Product p ORDER BY p.id")
+    Stream<ProductFacetRow> streamForFacets();
+
+    // Версии для условного GET: updatedAt товара и его категории и остаток, без загрузки сущности
+
+    @Query("SELECT p.id AS id, p.updatedAt AS updatedAt, c.updatedAt AS categoryUpdatedAt, p.quantity AS quantity " +
+            "FROM Product p LEFT JOIN p.category c WHERE p.id = :id")
+    Optional<ProductVersionRow> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT p.id AS id, p.updatedAt AS updatedAt, c.updatedAt AS categoryUpdatedAt, p.quantity AS quantity " +
+            "FROM Product p LEFT JOIN p.category c WHERE p.sku = :sku")
+    Optional<ProductVersionRow> findVersionBySku(@Param("sku") String sku);
+
+    @Query("SELECT p.id AS id, p.quantity AS quantity, p.active AS active FROM Product p WHERE p.id IN :ids")
+    List<ProductStockRow> findStockByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Потоковое чтение хешей товаров с SKU для синхронизации с фидом
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.id AS id, p.sku AS sku, p.contentHash AS contentHash, p.active AS active " +
+            "FROM Product p WHERE p.sku IS NOT NULL")
+    Stream<ProductSyncRow> streamSyncState();
+
+    // Выгрузка каталога: проекции не попадают в persistence context, поэтому
+    // память не растет с числом строк; категория берется из внешнего ключа без join
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description, p.price AS price, " +
+            "p.quantity AS quantity, p.sku AS sku, p.category.id AS categoryId, p.imageUrl AS imageUrl, " +
+            "p.active AS active, p.createdAt AS createdAt, p.updatedAt AS updatedAt " +
+            "FROM Product p WHERE p.active = true ORDER BY p.id")
+    Stream<ProductExportRow> streamActiveForExport();
+
+    /**
+     * Изменения с момента updatedSince, включая снятые с продажи товары
+     * Остаток не выгружается: его изменения не сдвигают updatedAt (см. decreaseQuantity)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description, p.price AS price, " +
+            "p.sku AS sku, p.category.id AS categoryId, p.imageUrl AS imageUrl, " +
+            "p.active AS active, p.createdAt AS createdAt, p.updatedAt AS updatedAt " +
+            "FROM Product p WHERE p.updatedAt >= :updatedSince ORDER BY p.updatedAt, p.id")
+    Stream<ProductChangeRow> streamChangedSince(@Param("updatedSince") LocalDateTime updatedSince);
+
+    // Остаток меняет только quantity: updated_at индексирован, и его запись на каждое
+    // резервирование лишила бы UPDATE HOT-обновления в PostgreSQL; ETag учитывает остаток сам
 
+    @Transactional
     @Modifying
-    @Query("UPDATE Product p SET p.quantity = p.quantity - :quantity WHERE p.id = :productId AND p.quantity >= :quantity")
+    @Query("UPDATE Product p SET p.quantity = p.quantity - :quantity " +
+            "WHERE p.id = :productId AND p.quantity >= :quantity")
     int decreaseQuantity(@Param("productId") Long productId, @Param("quantity") Integer quantity);
 
+    @Transactional
     @Modifying
     @Query("UPDATE Product p SET p.quantity = p.quantity + :quantity WHERE p.id = :productId")
     int increaseQuantity(@Param("productId") Long productId, @Param("quantity") Integer quantity);
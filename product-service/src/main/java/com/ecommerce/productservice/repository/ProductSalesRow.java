@@ -0,0 +1,8 @@
+package com.ecommerce.productservice.repository;
+
+public interface ProductSalesRow {
+
+    Long getProductId();
+
+    Long getUnits();
+}
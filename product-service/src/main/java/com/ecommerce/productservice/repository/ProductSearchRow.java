@@ -0,0 +1,12 @@
+package com.ecommerce.productservice.repository;
+
+public interface ProductSearchRow {
+
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    String getSku();
+}
@@ -0,0 +1,52 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.entity.Product;
+import com.ecommerce.productservice.exception.BadRequestException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Поля, по которым возможна keyset-сортировка списка товаров
+ * Для каждого поля есть индекс (поле, id) - см. Product
+ */
+public enum ProductSortKey {
+
+    ID("id", Product::getId, Long::valueOf),
+    NAME("name", Product::getName, Function.identity()),
+    PRICE("price", Product::getPrice, BigDecimal::new),
+    CREATED_AT("createdAt", Product::getCreatedAt, LocalDateTime::parse);
+
+    private final String attribute;
+    private final Function<Product, Object> extractor;
+    private final Function<String, Object> parser;
+
+    ProductSortKey(String attribute, Function<Product, ?> extractor, Function<String, ?> parser) {
+        this.attribute = attribute;
+        this.extractor = extractor::apply;
+        this.parser = parser::apply;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public String valueOf(Product product) {
+        return String.valueOf(extractor.apply(product));
+    }
+
+    public Object parse(String value) {
+        return parser.apply(value);
+    }
+
+    public static ProductSortKey fromParameter(String value) {
+        for (ProductSortKey key : values()) {
+            if (key.attribute.equalsIgnoreCase(value) || key.name().equalsIgnoreCase(value)) {
+                return key;
+            }
+        }
+        throw new BadRequestException("Unsupported sort: " + value.toLowerCase(Locale.ROOT));
+    }
+}
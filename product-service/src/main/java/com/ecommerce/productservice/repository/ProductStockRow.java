@@ -0,0 +1,10 @@
+package com.ecommerce.productservice.repository;
+
+public interface ProductStockRow {
+
+    Long getId();
+
+    Integer getQuantity();
+
+    Boolean getActive();
+}
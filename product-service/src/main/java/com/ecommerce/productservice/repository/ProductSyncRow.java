@@ -0,0 +1,12 @@
+package com.ecommerce.productservice.repository;
+
+public interface ProductSyncRow {
+
+    Long getId();
+
+    String getSku();
+
+    Long getContentHash();
+
+    Boolean getActive();
+}
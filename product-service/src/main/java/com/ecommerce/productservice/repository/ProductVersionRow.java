@@ -0,0 +1,14 @@
+package com.ecommerce.productservice.repository;
+
+import java.time.LocalDateTime;
+
+public interface ProductVersionRow {
+
+    Long getId();
+
+    LocalDateTime getUpdatedAt();
+
+    LocalDateTime getCategoryUpdatedAt();
+
+    Integer getQuantity();
+}
@@ -0,0 +1,74 @@
+package com.ecommerce.productservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Пакетное увеличение счетчиков просмотров одним upsert в одной транзакции:
+ * при ошибке не записывается ничего, и повтор в следующем окне не считает просмотры дважды
+ * Строки обновляются в порядке product_id, чтобы экземпляры не ждали друг друга по кругу
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductViewStatsRepository {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String POSTGRES_UPSERT_SQL =
+            "INSERT INTO product_view_stats (product_id, views, last_viewed_at) VALUES (?, ?, ?) " +
+            "ON CONFLICT (product_id) DO UPDATE SET views = product_view_stats.views + excluded.views, " +
+            "last_viewed_at = excluded.last_viewed_at";
+
+    /**
+     * Стандартный MERGE для остальных БД (H2 в тестах)
+     */
+    private static final String MERGE_SQL =
+            "MERGE INTO product_view_stats t USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS TIMESTAMP))) " +
+            "AS s (product_id, views, last_viewed_at) ON t.product_id = s.product_id " +
+            "WHEN MATCHED THEN UPDATE SET views = t.views + s.views, last_viewed_at = s.last_viewed_at " +
+            "WHEN NOT MATCHED THEN INSERT (product_id, views, last_viewed_at) " +
+            "VALUES (s.product_id, s.views, s.last_viewed_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile String upsertSql;
+
+    @Transactional
+    public void addViews(Map<Long, Long> views, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Map.Entry<Long, Long>> entries = views.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .toList();
+        jdbcTemplate.batchUpdate(upsertSql(), entries, BATCH_SIZE, (ps, entry) -> {
+            ps.setLong(1, entry.getKey());
+            ps.setLong(2, entry.getValue());
+            ps.setTimestamp(3, timestamp);
+        });
+    }
+
+    private String upsertSql() {
+        String sql = upsertSql;
+        if (sql == null) {
+            try {
+                String database = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                        DatabaseMetaData::getDatabaseProductName);
+                sql = "PostgreSQL".equals(database) ? POSTGRES_UPSERT_SQL : MERGE_SQL;
+            } catch (MetaDataAccessException e) {
+                throw new DataAccessResourceFailureException("Failed to detect database type", e);
+            }
+            upsertSql = sql;
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,59 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.entity.ReservationStatus;
+import com.ecommerce.productservice.entity.StockReservation;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    boolean existsByOrderReference(String orderReference);
+
+    boolean existsByOrderReferenceAndStatus(String orderReference, ReservationStatus status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.orderReference = :orderReference AND r.status IN :statuses")
+    List<StockReservation> findByOrderReferenceForUpdate(@Param("orderReference") String orderReference,
+                                                         @Param("statuses") Collection<ReservationStatus> statuses);
+
+    /**
+     * Блокировка строк не дает двум экземплярам вернуть один и тот же резерв
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.status = com.ecommerce.productservice.entity.ReservationStatus.HELD " +
+            "AND r.expiresAt < :now ORDER BY r.id")
+    List<StockReservation> findExpiredForUpdate(@Param("now") LocalDateTime now, Limit limit);
+
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = com.ecommerce.productservice.entity.ReservationStatus.CONFIRMED " +
+            "WHERE r.orderReference = :orderReference " +
+            "AND r.status = com.ecommerce.productservice.entity.ReservationStatus.HELD " +
+            "AND r.expiresAt > :now")
+    int confirm(@Param("orderReference") String orderReference, @Param("now") LocalDateTime now);
+
+    @Query("SELECT DISTINCT r.productId FROM StockReservation r WHERE r.orderReference = :orderReference " +
+            "AND r.status = com.ecommerce.productservice.entity.ReservationStatus.CONFIRMED")
+    List<Long> findConfirmedProductIds(@Param("orderReference") String orderReference);
+
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :status WHERE r.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") ReservationStatus status);
+
+    /**
+     * Проданные единицы по товарам (подтвержденные удержания)
+     */
+    @Query("SELECT r.productId AS productId, SUM(r.quantity) AS units FROM StockReservation r " +
+            "WHERE r.status = com.ecommerce.productservice.entity.ReservationStatus.CONFIRMED GROUP BY r.productId")
+    List<ProductSalesRow> sumConfirmedUnitsByProduct();
+}
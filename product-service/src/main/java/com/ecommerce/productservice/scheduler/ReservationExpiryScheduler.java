@@ -0,0 +1,36 @@
+package com.ecommerce.productservice.scheduler;
+
+import com.ecommerce.productservice.service.StockReservationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReservationExpiryScheduler {
+
+    private final StockReservationService reservationService;
+
+    @Value("${products.reservations.sweep-batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Возврат на склад истекших удержаний пачками, каждая в своей транзакции
+     */
+    @Scheduled(fixedDelayString = "${products.reservations.sweep-interval:30000}")
+    public void releaseExpiredHolds() {
+        int total = 0;
+        int released;
+        do {
+            released = reservationService.releaseExpired(batchSize);
+            total += released;
+        } while (released == batchSize);
+
+        if (total > 0) {
+            log.info("Released {} expired stock holds", total);
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package com.ecommerce.productservice.search;
+
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.event.ProductChangedEvent;
+import com.ecommerce.productservice.inventory.HotStockInventory;
+import com.ecommerce.productservice.repository.ProductFacetRow;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.repository.ProductStockRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Битовые индексы товаров для фильтрации и подсчета фасетов
+ * Каждому товару назначается порядковый номер (бит); отдельные битовые множества
+ * хранят активные товары, товары в наличии, товары каждой категории и каждой
+ * ценовой корзины. Фильтр - пересечение множеств, без обращения к БД.
+ * Строится при старте и заново раз в products.facets.rebuild-interval, обновляется
+ * по ProductChangedEvent после коммита; изменения остатка применяются пачкой
+ * раз в products.facets.stock-refresh-interval
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductFacetIndex {
+
+    /**
+     * Нижние границы ценовых корзин; последняя корзина открыта сверху
+     */
+    public static final List<BigDecimal> PRICE_BUCKETS = List.of(
+            BigDecimal.ZERO, new BigDecimal("10"), new BigDecimal("25"), new BigDecimal("50"),
+            new BigDecimal("100"), new BigDecimal("250"), new BigDecimal("500"), new BigDecimal("1000"));
+
+    private static final long[] BUCKET_CENTS = PRICE_BUCKETS.stream().mapToLong(ProductFacetIndex::toCents).toArray();
+
+    private static final long NO_CATEGORY = -1;
+    private static final int STOCK_REFRESH_BATCH = 500;
+
+    private final ProductRepository productRepository;
+    private final HotStockInventory hotStockInventory;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Bitmaps bitmaps = new Bitmaps();
+
+    /**
+     * Товары, у которых изменился остаток; перечитываются в refreshStock()
+     */
+    private final Set<Long> staleStock = ConcurrentHashMap.newKeySet();
+
+    /**
+     * События, пришедшие во время перестроения; применяются к новому индексу перед заменой
+     */
+    private final List<ProductChangedEvent> changedDuringBuild = new ArrayList<>();
+
+    private final Set<Long> stockChangedDuringBuild = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean building;
+
+    private volatile boolean ready;
+
+    /**
+     * @param categoryIds категории фильтра (категория и ее поддерево); null - без фильтра
+     * @param active      true - только активные, false - только неактивные
+     */
+    public record Query(Set<Long> categoryIds, BigDecimal minPrice, BigDecimal maxPrice,
+                        boolean inStockOnly, boolean active) {
+    }
+
+    /**
+     * Фасеты считаются без собственного измерения: по категориям - без фильтра
+     * категории, по цене - без фильтра цены, чтобы клиент видел альтернативы
+     *
+     * @param categoryCounts      id категории -> число товаров непосредственно в ней
+     * @param priceBucketCounts   число товаров в каждой корзине PRICE_BUCKETS
+     */
+    public record FacetHits(List<Long> ids, long total, Map<Long, Long> categoryCounts, long[] priceBucketCounts) {
+    }
+
+    /**
+     * Строит индекс заново и заменяет им текущий; запросы до замены обслуживает старый индекс
+     * Периодическое перестроение подхватывает изменения с других экземпляров и освобождает
+     * порядковые номера удаленных товаров
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${products.facets.rebuild-interval:300000}",
+            fixedDelayString = "${products.facets.rebuild-interval:300000}")
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        long startTime = System.currentTimeMillis();
+
+        lock.writeLock().lock();
+        try {
+            building = true;
+            changedDuringBuild.clear();
+            stockChangedDuringBuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Bitmaps fresh = new Bitmaps();
+        long count = 0;
+        try {
+            try (Stream<ProductFacetRow> rows = productRepository.streamForFacets()) {
+                for (ProductFacetRow row : (Iterable<ProductFacetRow>) rows::iterator) {
+                    fresh.put(row.getId(), row.getPrice(), isInStock(row.getId(), row.getQuantity()),
+                            row.getCategoryId(), Boolean.TRUE.equals(row.getActive()));
+                    count++;
+                }
+            }
+            lock.writeLock().lock();
+            try {
+                // События новее прочитанных строк
+                changedDuringBuild.forEach(event -> apply(fresh, event));
+                bitmaps = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                building = false;
+                changedDuringBuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            // Остаток мог измениться после чтения строки
+            staleStock.addAll(stockChangedDuringBuild);
+        }
+
+        ready = true;
+        log.info("Product facet index built: products={}, categories={}, took {} ms",
+                count, fresh.byCategory.size(), System.currentTimeMillis() - startTime);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getChangeType() == ProductChangedEvent.ChangeType.STOCK_CHANGED) {
+            staleStock.add(event.getProductId());
+            if (building) {
+                stockChangedDuringBuild.add(event.getProductId());
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (building) {
+                changedDuringBuild.add(event);
+            }
+            apply(bitmaps, event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Перечитывает остатки товаров, изменившихся после резервирования и возврата
+     */
+    @Scheduled(initialDelayString = "${products.facets.stock-refresh-interval:2000}",
+            fixedDelayString = "${products.facets.stock-refresh-interval:2000}")
+    public void refreshStock() {
+        if (staleStock.isEmpty()) {
+            return;
+        }
+        List<Long> batch = new ArrayList<>(STOCK_REFRESH_BATCH);
+        Iterator<Long> iterator = staleStock.iterator();
+        while (iterator.hasNext()) {
+            batch.add(iterator.next());
+            iterator.remove();
+            if (batch.size() == STOCK_REFRESH_BATCH || !iterator.hasNext()) {
+                List<ProductStockRow> rows = productRepository.findStockByIdIn(batch);
+                lock.writeLock().lock();
+                try {
+                    for (ProductStockRow row : rows) {
+                        bitmaps.setInStock(row.getId(), isInStock(row.getId(), row.getQuantity()));
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public FacetHits filter(Query query, long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet active = bitmaps.active;
+            BitSet base = (BitSet) (query.active() ? active.clone() : bitmaps.present.clone());
+            if (!query.active()) {
+                base.andNot(active);
+            }
+            if (query.inStockOnly()) {
+                base.and(bitmaps.inStock);
+            }
+            BitSet categoryMask = query.categoryIds() != null ? bitmaps.categoryMask(query.categoryIds()) : null;
+            BitSet priceMask = query.minPrice() != null || query.maxPrice() != null
+                    ? bitmaps.priceMask(query.minPrice(), query.maxPrice())
+                    : null;
+
+            BitSet forCategories = and(base, priceMask);
+            BitSet forPrices = and(base, categoryMask);
+            BitSet matches = and(forPrices, priceMask);
+
+            Map<Long, Long> categoryCounts = new HashMap<>();
+            for (int ordinal = forCategories.nextSetBit(0); ordinal >= 0; ordinal = forCategories.nextSetBit(ordinal + 1)) {
+                if (bitmaps.categoryIds[ordinal] != NO_CATEGORY) {
+                    categoryCounts.merge(bitmaps.categoryIds[ordinal], 1L, Long::sum);
+                }
+            }
+
+            long[] priceBucketCounts = new long[BUCKET_CENTS.length];
+            for (int bucket = 0; bucket < BUCKET_CENTS.length; bucket++) {
+                BitSet inBucket = (BitSet) bitmaps.byPriceBucket[bucket].clone();
+                inBucket.and(forPrices);
+                priceBucketCounts[bucket] = inBucket.cardinality();
+            }
+
+            List<Long> page = new ArrayList<>(Math.min(limit, 256));
+            long skipped = 0;
+            for (int ordinal = matches.nextSetBit(0); ordinal >= 0 && page.size() < limit;
+                 ordinal = matches.nextSetBit(ordinal + 1)) {
+                if (skipped++ >= offset) {
+                    page.add(bitmaps.ids[ordinal]);
+                }
+            }
+
+            return new FacetHits(page, matches.cardinality(), categoryCounts, priceBucketCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static BitSet and(BitSet base, BitSet mask) {
+        BitSet result = (BitSet) base.clone();
+        if (mask != null) {
+            result.and(mask);
+        }
+        return result;
+    }
+
+    private void apply(Bitmaps target, ProductChangedEvent event) {
+        ProductResponse product = event.getProduct();
+        if (product != null) {
+            target.put(product.getId(), product.getPrice(), isInStock(product.getId(), product.getQuantity()),
+                    product.getCategory() != null ? product.getCategory().getId() : null, product.isActive());
+        } else {
+            target.remove(event.getProductId());
+        }
+    }
+
+    private boolean isInStock(Long id, Integer quantity) {
+        return (quantity != null ? quantity : 0) + hotStockInventory.localReserve(id) > 0;
+    }
+
+    private static int bucketOf(long cents) {
+        int bucket = 0;
+        while (bucket + 1 < BUCKET_CENTS.length && cents >= BUCKET_CENTS[bucket + 1]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static long toCents(BigDecimal price) {
+        return price.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    /**
+     * Битовые множества одного построения индекса
+     * Порядковые номера удаленных товаров не переиспользуются до следующего перестроения
+     */
+    private static final class Bitmaps {
+
+        /**
+         * id товара -> порядковый номер
+         */
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        private long[] ids = new long[1024];
+        private long[] priceCents = new long[1024];
+        private long[] categoryIds = new long[1024];
+
+        private final BitSet present = new BitSet();
+        private final BitSet active = new BitSet();
+        private final BitSet inStock = new BitSet();
+        private final Map<Long, BitSet> byCategory = new HashMap<>();
+        private final BitSet[] byPriceBucket = new BitSet[BUCKET_CENTS.length];
+
+        Bitmaps() {
+            for (int i = 0; i < byPriceBucket.length; i++) {
+                byPriceBucket[i] = new BitSet();
+            }
+        }
+
+        void put(Long id, BigDecimal price, boolean isInStock, Long categoryId, boolean isActive) {
+            Integer existing = ordinals.get(id);
+            int ordinal = existing != null ? existing : nextOrdinal(id);
+            clearBits(ordinal);
+
+            present.set(ordinal);
+            active.set(ordinal, isActive);
+            inStock.set(ordinal, isInStock);
+
+            long cents = price != null ? toCents(price) : 0;
+            priceCents[ordinal] = cents;
+            byPriceBucket[bucketOf(cents)].set(ordinal);
+
+            categoryIds[ordinal] = categoryId != null ? categoryId : NO_CATEGORY;
+            if (categoryId != null) {
+                byCategory.computeIfAbsent(categoryId, key -> new BitSet()).set(ordinal);
+            }
+        }
+
+        void remove(Long id) {
+            Integer ordinal = ordinals.get(id);
+            if (ordinal != null) {
+                clearBits(ordinal);
+            }
+        }
+
+        private void clearBits(int ordinal) {
+            if (!present.get(ordinal)) {
+                return;
+            }
+            present.clear(ordinal);
+            active.clear(ordinal);
+            inStock.clear(ordinal);
+            byPriceBucket[bucketOf(priceCents[ordinal])].clear(ordinal);
+            if (categoryIds[ordinal] != NO_CATEGORY) {
+                BitSet inCategory = byCategory.get(categoryIds[ordinal]);
+                if (inCategory != null) {
+                    inCategory.clear(ordinal);
+                }
+            }
+        }
+
+        private int nextOrdinal(long id) {
+            int ordinal = ordinals.size();
+            ordinals.put(id, ordinal);
+            if (ordinal == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                priceCents = Arrays.copyOf(priceCents, capacity);
+                categoryIds = Arrays.copyOf(categoryIds, capacity);
+            }
+            ids[ordinal] = id;
+            return ordinal;
+        }
+
+        void setInStock(Long id, boolean isInStock) {
+            Integer ordinal = ordinals.get(id);
+            if (ordinal != null && present.get(ordinal)) {
+                inStock.set(ordinal, isInStock);
+            }
+        }
+
+        BitSet categoryMask(Set<Long> categories) {
+            BitSet mask = new BitSet();
+            for (Long categoryId : categories) {
+                BitSet inCategory = byCategory.get(categoryId);
+                if (inCategory != null) {
+                    mask.or(inCategory);
+                }
+            }
+            return mask;
+        }
+
+        /**
+         * Корзины целиком внутри диапазона объединяются, пограничные проверяются по цене товара
+         */
+        BitSet priceMask(BigDecimal minPrice, BigDecimal maxPrice) {
+            long min = minPrice != null ? toCents(minPrice) : Long.MIN_VALUE;
+            long max = maxPrice != null ? toCents(maxPrice) : Long.MAX_VALUE;
+
+            BitSet mask = new BitSet();
+            for (int bucket = 0; bucket < BUCKET_CENTS.length; bucket++) {
+                long from = BUCKET_CENTS[bucket];
+                long to = bucket + 1 < BUCKET_CENTS.length ? BUCKET_CENTS[bucket + 1] - 1 : Long.MAX_VALUE;
+                if (to < min || from > max) {
+                    continue;
+                }
+                BitSet inBucket = byPriceBucket[bucket];
+                if (from >= min && to <= max) {
+                    mask.or(inBucket);
+                    continue;
+                }
+                for (int ordinal = inBucket.nextSetBit(0); ordinal >= 0; ordinal = inBucket.nextSetBit(ordinal + 1)) {
+                    if (priceCents[ordinal] >= min && priceCents[ordinal] <= max) {
+                        mask.set(ordinal);
+                    }
+                }
+            }
+            return mask;
+        }
+    }
+}
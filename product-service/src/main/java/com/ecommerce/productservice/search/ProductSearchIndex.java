@@ -0,0 +1,370 @@
+package com.ecommerce.productservice.search;
+
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.event.ProductChangedEvent;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.repository.ProductSearchRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Инвертированный индекс активных товаров по name, sku и description
+ * Поддерживает точное, префиксное и нечеткое (одна правка) совпадение термов
+ * и ранжирование по весу поля и IDF терма. Строится при старте и заново раз в
+ * products.search.rebuild-interval, обновляется инкрементально по ProductChangedEvent
+ * после коммита транзакции
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndex {
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float SKU_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private static final float EXACT_MATCH = 1.0f;
+    private static final float PREFIX_MATCH = 0.8f;
+    private static final float FUZZY_MATCH = 0.6f;
+
+    static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_EXPANSIONS = 100;
+    static final int MIN_FUZZY_LENGTH = 4;
+
+    private final ProductRepository productRepository;
+    private final SearchResultCache searchResultCache;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Terms terms = new Terms();
+
+    /**
+     * События, пришедшие во время перестроения; применяются к новому индексу перед заменой
+     */
+    private final List<ProductChangedEvent> changedDuringBuild = new ArrayList<>();
+
+    private boolean building;
+
+    private volatile boolean ready;
+
+    public record SearchHits(List<Long> ids, long total) {
+    }
+
+    /**
+     * Строит индекс заново и заменяет им текущий; запросы до замены обслуживает старый индекс
+     * Периодическое перестроение подхватывает изменения с других экземпляров
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${products.search.rebuild-interval:300000}",
+            fixedDelayString = "${products.search.rebuild-interval:300000}")
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        long startTime = System.currentTimeMillis();
+
+        lock.writeLock().lock();
+        try {
+            building = true;
+            changedDuringBuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Terms fresh = new Terms();
+        long count = 0;
+        try {
+            try (Stream<ProductSearchRow> rows = productRepository.streamActiveForSearch()) {
+                for (ProductSearchRow row : (Iterable<ProductSearchRow>) rows::iterator) {
+                    fresh.addDocument(row.getId(), row.getName(), row.getSku(), row.getDescription());
+                    count++;
+                }
+            }
+            lock.writeLock().lock();
+            try {
+                // События новее прочитанных строк
+                changedDuringBuild.forEach(event -> apply(fresh, event));
+                terms = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                building = false;
+                changedDuringBuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        ready = true;
+        searchResultCache.invalidateAll();
+        log.info("Product search index built: products={}, terms={}, took {} ms",
+                count, fresh.postings.size(), System.currentTimeMillis() - startTime);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getChangeType() == ProductChangedEvent.ChangeType.STOCK_CHANGED) {
+            return;
+        }
+
+        // Термы товара до и после изменения: по ним сбрасываются закешированные результаты
+        Set<String> changedTerms;
+        lock.writeLock().lock();
+        try {
+            if (building) {
+                changedDuringBuild.add(event);
+            }
+            changedTerms = apply(terms, event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        searchResultCache.invalidate(changedTerms);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Поиск по всем словам запроса (AND), результаты упорядочены по релевантности
+     */
+    public SearchHits search(String query, long offset, int limit) {
+        List<String> tokens = TextTokenizer.tokenize(query).stream()
+                .distinct()
+                .toList();
+        if (tokens.isEmpty()) {
+            return new SearchHits(List.of(), 0);
+        }
+
+        List<Map<Long, Float>> tokenScores = new ArrayList<>(tokens.size());
+        lock.readLock().lock();
+        try {
+            for (String token : tokens) {
+                Map<Long, Float> scores = terms.scoreToken(token);
+                if (scores.isEmpty()) {
+                    return new SearchHits(List.of(), 0);
+                }
+                tokenScores.add(scores);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Пересечение начинаем с самого короткого списка
+        tokenScores.sort(Comparator.comparingInt(Map::size));
+        List<Map.Entry<Long, Float>> hits = new ArrayList<>();
+        for (Map.Entry<Long, Float> entry : tokenScores.getFirst().entrySet()) {
+            float score = entry.getValue();
+            boolean matchesAll = true;
+            for (int i = 1; i < tokenScores.size(); i++) {
+                Float tokenScore = tokenScores.get(i).get(entry.getKey());
+                if (tokenScore == null) {
+                    matchesAll = false;
+                    break;
+                }
+                score += tokenScore;
+            }
+            if (matchesAll) {
+                hits.add(Map.entry(entry.getKey(), score));
+            }
+        }
+
+        hits.sort(Map.Entry.<Long, Float>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+
+        List<Long> ids = hits.stream()
+                .skip(offset)
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+        return new SearchHits(ids, hits.size());
+    }
+
+    /**
+     * @return термы товара до и после изменения
+     */
+    private static Set<String> apply(Terms target, ProductChangedEvent event) {
+        Set<String> changedTerms = new HashSet<>(target.documentTerms.getOrDefault(event.getProductId(), Set.of()));
+        target.removeDocument(event.getProductId());
+
+        ProductResponse product = event.getProduct();
+        if (product != null && product.isActive()) {
+            target.addDocument(product.getId(), product.getName(), product.getSku(), product.getDescription());
+            changedTerms.addAll(target.documentTerms.getOrDefault(product.getId(), Set.of()));
+        }
+        return changedTerms;
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float fieldWeight) {
+        for (String token : new HashSet<>(TextTokenizer.tokenize(text))) {
+            weights.merge(token, fieldWeight, Float::sum);
+        }
+    }
+
+    static Set<String> deletionsOf(String term) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i < term.length(); i++) {
+            result.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return result;
+    }
+
+    /**
+     * Расстояние Дамерау-Левенштейна (OSA) не больше 1
+     */
+    static boolean withinOneEdit(String a, String b) {
+        int lengthDiff = a.length() - b.length();
+        if (Math.abs(lengthDiff) > 1) {
+            return false;
+        }
+
+        int i = 0;
+        while (i < a.length() && i < b.length() && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (lengthDiff > 0) {
+            return a.substring(i + 1).equals(b.substring(i));
+        }
+        if (lengthDiff < 0) {
+            return a.substring(i).equals(b.substring(i + 1));
+        }
+        if (i >= a.length()) {
+            return true;
+        }
+        // Замена одного символа или перестановка соседних
+        return a.substring(i + 1).equals(b.substring(i + 1))
+                || (i + 1 < a.length()
+                && a.charAt(i) == b.charAt(i + 1)
+                && a.charAt(i + 1) == b.charAt(i)
+                && a.substring(i + 2).equals(b.substring(i + 2)));
+    }
+
+    /**
+     * Словарь одного построения индекса
+     */
+    private static final class Terms {
+
+        /**
+         * терм -> (id товара -> вес терма в товаре)
+         */
+        private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+
+        /**
+         * id товара -> его термы, для удаления старых записей при обновлении
+         */
+        private final Map<Long, Set<String>> documentTerms = new HashMap<>();
+
+        /**
+         * терм без одного символа -> исходные термы (SymSpell), для нечеткого поиска без перебора словаря
+         */
+        private final Map<String, Set<String>> deletions = new HashMap<>();
+
+        Map<Long, Float> scoreToken(String token) {
+            Map<String, Float> matchedTerms = new HashMap<>();
+
+            if (postings.containsKey(token)) {
+                matchedTerms.put(token, EXACT_MATCH);
+            }
+
+            if (token.length() >= MIN_PREFIX_LENGTH) {
+                int expansions = 0;
+                for (String term : postings.subMap(token, false, token + Character.MAX_VALUE, false).keySet()) {
+                    if (++expansions > MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                    matchedTerms.putIfAbsent(term, PREFIX_MATCH);
+                }
+            }
+
+            if (token.length() >= MIN_FUZZY_LENGTH) {
+                for (String term : fuzzyCandidates(token)) {
+                    matchedTerms.putIfAbsent(term, FUZZY_MATCH);
+                }
+            }
+
+            Map<Long, Float> scores = new HashMap<>();
+            int documentCount = Math.max(documentTerms.size(), 1);
+            for (Map.Entry<String, Float> match : matchedTerms.entrySet()) {
+                Map<Long, Float> documents = postings.get(match.getKey());
+                float idf = (float) Math.log(1.0 + (double) documentCount / documents.size());
+                for (Map.Entry<Long, Float> document : documents.entrySet()) {
+                    float score = match.getValue() * idf * document.getValue();
+                    scores.merge(document.getKey(), score, Math::max);
+                }
+            }
+            return scores;
+        }
+
+        private Set<String> fuzzyCandidates(String token) {
+            Set<String> candidates = new HashSet<>(deletions.getOrDefault(token, Set.of()));
+            for (String deletion : deletionsOf(token)) {
+                if (postings.containsKey(deletion)) {
+                    candidates.add(deletion);
+                }
+                candidates.addAll(deletions.getOrDefault(deletion, Set.of()));
+            }
+            candidates.removeIf(term -> term.equals(token) || !withinOneEdit(token, term));
+            return candidates;
+        }
+
+        void addDocument(Long id, String name, String sku, String description) {
+            Map<String, Float> weights = new HashMap<>();
+            addField(weights, name, NAME_WEIGHT);
+            addField(weights, sku, SKU_WEIGHT);
+            addField(weights, description, DESCRIPTION_WEIGHT);
+
+            for (Map.Entry<String, Float> entry : weights.entrySet()) {
+                String term = entry.getKey();
+                Map<Long, Float> documents = postings.get(term);
+                if (documents == null) {
+                    documents = new HashMap<>();
+                    postings.put(term, documents);
+                    if (term.length() >= MIN_FUZZY_LENGTH - 1) {
+                        for (String deletion : deletionsOf(term)) {
+                            deletions.computeIfAbsent(deletion, key -> new HashSet<>()).add(term);
+                        }
+                    }
+                }
+                documents.put(id, entry.getValue());
+            }
+            documentTerms.put(id, weights.keySet());
+        }
+
+        void removeDocument(Long id) {
+            Set<String> terms = documentTerms.remove(id);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms) {
+                Map<Long, Float> documents = postings.get(term);
+                if (documents == null) {
+                    continue;
+                }
+                documents.remove(id);
+                if (documents.isEmpty()) {
+                    postings.remove(term);
+                    for (String deletion : deletionsOf(term)) {
+                        Set<String> source = deletions.get(deletion);
+                        if (source != null) {
+                            source.remove(term);
+                            if (source.isEmpty()) {
+                                deletions.remove(deletion);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.ecommerce.productservice.search;
+
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.dto.ProductSuggestion;
+import com.ecommerce.productservice.event.ProductChangedEvent;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.repository.ProductSalesRow;
+import com.ecommerce.productservice.repository.ProductSearchRow;
+import com.ecommerce.productservice.repository.StockReservationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Подсказки по префиксу названия (с начала любого слова) и SKU активных товаров
+ * Запросы обслуживаются из неизменяемого снимка SuggestSnapshot без блокировок;
+ * изменения товаров накапливаются и применяются пересборкой снимка раз в
+ * products.suggest.rebuild-interval, раз в products.suggest.reload-interval товары
+ * и продажи перечитываются из БД. Вес подсказки - число проданных единиц
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSuggester {
+
+    private final ProductRepository productRepository;
+    private final StockReservationRepository reservationRepository;
+
+    /**
+     * Актуальные названия и SKU активных товаров, источник для пересборки снимка
+     */
+    private final Map<Long, SuggestSnapshot.Document> documents = new ConcurrentHashMap<>();
+
+    private final Object documentsLock = new Object();
+
+    /**
+     * Товары, измененные во время перечитывания из БД; прочитанные строки их не перезаписывают
+     */
+    private final Set<Long> changedDuringReload = new HashSet<>();
+
+    private boolean reloading;
+
+    private volatile Map<Long, Long> popularity = Map.of();
+
+    private volatile SuggestSnapshot snapshot = SuggestSnapshot.EMPTY;
+
+    private volatile boolean dirty;
+
+    /**
+     * Перечитывает товары и продажи из БД и пересобирает снимок
+     * Периодически подхватывает изменения с других экземпляров и новые продажи
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${products.suggest.reload-interval:600000}",
+            fixedDelayString = "${products.suggest.reload-interval:600000}")
+    @Transactional(readOnly = true)
+    public synchronized void reload() {
+        synchronized (documentsLock) {
+            reloading = true;
+            changedDuringReload.clear();
+        }
+        try {
+            loadPopularity();
+            Map<Long, SuggestSnapshot.Document> fresh = new HashMap<>();
+            try (Stream<ProductSearchRow> rows = productRepository.streamActiveForSearch()) {
+                rows.forEach(row -> fresh.put(row.getId(), document(row.getId(), row.getName(), row.getSku())));
+            }
+            synchronized (documentsLock) {
+                documents.keySet().removeIf(id -> !fresh.containsKey(id) && !changedDuringReload.contains(id));
+                fresh.forEach((id, document) -> {
+                    if (!changedDuringReload.contains(id)) {
+                        documents.put(id, document);
+                    }
+                });
+            }
+        } finally {
+            synchronized (documentsLock) {
+                reloading = false;
+                changedDuringReload.clear();
+            }
+        }
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getChangeType() == ProductChangedEvent.ChangeType.STOCK_CHANGED) {
+            return;
+        }
+        ProductResponse product = event.getProduct();
+        synchronized (documentsLock) {
+            if (reloading) {
+                changedDuringReload.add(event.getProductId());
+            }
+            if (product != null && product.isActive()) {
+                documents.put(product.getId(), document(product.getId(), product.getName(), product.getSku()));
+            } else {
+                documents.remove(event.getProductId());
+            }
+        }
+        dirty = true;
+    }
+
+    @Scheduled(initialDelayString = "${products.suggest.rebuild-interval:5000}",
+            fixedDelayString = "${products.suggest.rebuild-interval:5000}")
+    public void rebuildIfChanged() {
+        if (dirty) {
+            rebuild();
+        }
+    }
+
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        return snapshot.suggest(prefix, Math.min(limit, SuggestSnapshot.MAX_SUGGESTIONS)).stream()
+                .map(document -> ProductSuggestion.builder()
+                        .id(document.id())
+                        .name(document.name())
+                        .sku(document.sku())
+                        .build())
+                .toList();
+    }
+
+    private synchronized void rebuild() {
+        long startTime = System.currentTimeMillis();
+        // Изменения, пришедшие во время сборки, попадут в следующую
+        dirty = false;
+        snapshot = SuggestSnapshot.build(List.copyOf(documents.values()));
+        log.debug("Product suggest snapshot built: products={}, took {} ms",
+                snapshot.size(), System.currentTimeMillis() - startTime);
+    }
+
+    private void loadPopularity() {
+        Map<Long, Long> unitsByProduct = new HashMap<>();
+        for (ProductSalesRow row : reservationRepository.sumConfirmedUnitsByProduct()) {
+            unitsByProduct.put(row.getProductId(), row.getUnits());
+        }
+        popularity = unitsByProduct;
+    }
+
+    private SuggestSnapshot.Document document(Long id, String name, String sku) {
+        return new SuggestSnapshot.Document(id, name, sku, popularity.getOrDefault(id, 0L));
+    }
+}
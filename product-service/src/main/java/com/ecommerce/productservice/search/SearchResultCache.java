@@ -0,0 +1,178 @@
+package com.ecommerce.productservice.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Кеш результатов поиска: id товаров страницы и общее число совпадений
+ * Ключ - нормализованный запрос (уникальные термы по алфавиту), смещение и размер страницы.
+ * Запись сбрасывается выборочно, когда меняется товар, термы которого до или после
+ * изменения совпадают с термом запроса по правилам индекса: точно, по префиксу или
+ * с одной опечаткой. Изменение IDF от чужих товаров влияет только на порядок
+ * и ограничено TTL (products.search-cache.expire-after-write)
+ */
+@Component
+public class SearchResultCache {
+
+    record Key(String query, long offset, int limit) {
+    }
+
+    private final Cache<Key, ProductSearchIndex.SearchHits> results;
+
+    /**
+     * терм запроса -> ключи кеша с этим термом
+     */
+    private final Map<String, Set<Key>> keysByToken = new ConcurrentHashMap<>();
+
+    /**
+     * терм запроса без одного символа -> термы запросов, для поиска опечаток без перебора
+     */
+    private final Map<String, Set<String>> tokensByDeletion = new ConcurrentHashMap<>();
+
+    /**
+     * Растет при каждом изменении товара; результат, посчитанный во время изменения, не кешируется
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public SearchResultCache(MeterRegistry meterRegistry,
+                             @Value("${products.search-cache.maximum-size:10000}") long maximumSize,
+                             @Value("${products.search-cache.expire-after-write:60000}") long expireAfterWriteMillis) {
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWriteMillis))
+                // Синхронно, чтобы индекс термов не расходился с содержимым кеша
+                .executor(Runnable::run)
+                .removalListener((Key key, ProductSearchIndex.SearchHits hits, RemovalCause cause) -> {
+                    if (key != null && cause != RemovalCause.REPLACED) {
+                        unregister(key);
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "products.search");
+    }
+
+    public ProductSearchIndex.SearchHits get(String query, long offset, int limit,
+                                             Supplier<ProductSearchIndex.SearchHits> loader) {
+        List<String> tokens = new TreeSet<>(TextTokenizer.tokenize(query)).stream().toList();
+        if (tokens.isEmpty()) {
+            return loader.get();
+        }
+
+        Key key = new Key(String.join(" ", tokens), offset, limit);
+        ProductSearchIndex.SearchHits cached = results.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long startGeneration = generation.get();
+        ProductSearchIndex.SearchHits hits = loader.get();
+        register(key, tokens);
+        results.put(key, hits);
+        // Товар изменился во время поиска: результат мог устареть
+        if (generation.get() != startGeneration) {
+            results.invalidate(key);
+        }
+        return hits;
+    }
+
+    /**
+     * Сбрасывает результаты запросов, которые индекс сопоставил бы с одним из термов
+     */
+    public void invalidate(Collection<String> terms) {
+        generation.incrementAndGet();
+        if (keysByToken.isEmpty()) {
+            return;
+        }
+
+        Set<String> tokens = new HashSet<>();
+        for (String term : terms) {
+            collectMatchingTokens(term, tokens);
+        }
+        for (String token : tokens) {
+            Set<Key> keys = keysByToken.get(token);
+            if (keys != null) {
+                results.invalidateAll(List.copyOf(keys));
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        results.invalidateAll();
+    }
+
+    private void collectMatchingTokens(String term, Set<String> tokens) {
+        // Точное совпадение и префикс: терм запроса - начало терма товара
+        addIfCached(term, tokens);
+        for (int length = ProductSearchIndex.MIN_PREFIX_LENGTH; length < term.length(); length++) {
+            addIfCached(term.substring(0, length), tokens);
+        }
+
+        // Одна опечатка: вставка, удаление, замена или перестановка символа
+        Set<String> candidates = new HashSet<>(tokensByDeletion.getOrDefault(term, Set.of()));
+        for (String deletion : ProductSearchIndex.deletionsOf(term)) {
+            if (keysByToken.containsKey(deletion)) {
+                candidates.add(deletion);
+            }
+            candidates.addAll(tokensByDeletion.getOrDefault(deletion, Set.of()));
+        }
+        for (String candidate : candidates) {
+            if (candidate.length() >= ProductSearchIndex.MIN_FUZZY_LENGTH
+                    && ProductSearchIndex.withinOneEdit(candidate, term)) {
+                tokens.add(candidate);
+            }
+        }
+    }
+
+    private void addIfCached(String token, Set<String> tokens) {
+        if (keysByToken.containsKey(token)) {
+            tokens.add(token);
+        }
+    }
+
+    private void register(Key key, List<String> tokens) {
+        for (String token : tokens) {
+            keysByToken.compute(token, (ignored, keys) -> {
+                Set<Key> result = keys != null ? keys : ConcurrentHashMap.newKeySet();
+                result.add(key);
+                return result;
+            });
+            if (token.length() >= ProductSearchIndex.MIN_FUZZY_LENGTH) {
+                for (String deletion : ProductSearchIndex.deletionsOf(token)) {
+                    tokensByDeletion.computeIfAbsent(deletion, ignored -> ConcurrentHashMap.newKeySet()).add(token);
+                }
+            }
+        }
+    }
+
+    private void unregister(Key key) {
+        for (String token : key.query().split(" ")) {
+            keysByToken.computeIfPresent(token, (ignored, keys) -> {
+                keys.remove(key);
+                if (!keys.isEmpty()) {
+                    return keys;
+                }
+                for (String deletion : ProductSearchIndex.deletionsOf(token)) {
+                    tokensByDeletion.computeIfPresent(deletion, (unused, source) -> {
+                        source.remove(token);
+                        return source.isEmpty() ? null : source;
+                    });
+                }
+                return null;
+            });
+        }
+    }
+}
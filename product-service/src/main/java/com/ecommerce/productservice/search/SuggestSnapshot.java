@@ -0,0 +1,180 @@
+package com.ecommerce.productservice.search;
+
+import java.util.*;
+
+/**
+ * Неизменяемый словарь подсказок: отсортированный массив ключей и ранги товаров
+ * Ключи - нормализованное название с начала каждого слова и SKU. Товары пронумерованы
+ * по убыванию популярности, поэтому лучшие подсказки - наименьшие ранги. Для коротких
+ * префиксов, которым соответствуют большие диапазоны ключей, лучшие ранги посчитаны заранее
+ */
+final class SuggestSnapshot {
+
+    static final int MAX_KEY_LENGTH = 32;
+    static final int MAX_SUGGESTIONS = 20;
+    private static final int PRECOMPUTED_PREFIX_LENGTH = 3;
+
+    record Document(long id, String name, String sku, long weight) {
+    }
+
+    private record Key(String text, int rank) {
+    }
+
+    static final SuggestSnapshot EMPTY = build(List.of());
+
+    /**
+     * ранг -> товар
+     */
+    private final Document[] documents;
+    private final String[] keys;
+    private final int[] keyRanks;
+    private final Map<String, int[]> topByPrefix;
+
+    private SuggestSnapshot(Document[] documents, String[] keys, int[] keyRanks, Map<String, int[]> topByPrefix) {
+        this.documents = documents;
+        this.keys = keys;
+        this.keyRanks = keyRanks;
+        this.topByPrefix = topByPrefix;
+    }
+
+    static SuggestSnapshot build(Collection<Document> source) {
+        Document[] documents = source.toArray(new Document[0]);
+        Arrays.sort(documents, Comparator.comparingLong(Document::weight).reversed()
+                .thenComparingInt(document -> document.name().length())
+                .thenComparingLong(Document::id));
+
+        List<Key> keyList = new ArrayList<>();
+        for (int rank = 0; rank < documents.length; rank++) {
+            List<String> nameTokens = TextTokenizer.tokenize(documents[rank].name());
+            for (int start = 0; start < nameTokens.size(); start++) {
+                keyList.add(new Key(join(nameTokens, start), rank));
+            }
+            List<String> skuTokens = TextTokenizer.tokenize(documents[rank].sku());
+            if (!skuTokens.isEmpty()) {
+                keyList.add(new Key(join(skuTokens, 0), rank));
+            }
+        }
+        keyList.sort(Comparator.comparing(Key::text).thenComparingInt(Key::rank));
+
+        String[] keys = new String[keyList.size()];
+        int[] keyRanks = new int[keyList.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = keyList.get(i).text();
+            keyRanks[i] = keyList.get(i).rank();
+        }
+
+        // Ключи отсортированы, поэтому ключи с общим префиксом идут подряд
+        Map<String, int[]> topByPrefix = new HashMap<>();
+        for (int length = 1; length <= PRECOMPUTED_PREFIX_LENGTH; length++) {
+            int i = 0;
+            while (i < keys.length) {
+                if (keys[i].length() < length) {
+                    i++;
+                    continue;
+                }
+                String prefix = keys[i].substring(0, length);
+                TopRanks top = new TopRanks(MAX_SUGGESTIONS);
+                while (i < keys.length && keys[i].startsWith(prefix)) {
+                    top.offer(keyRanks[i]);
+                    i++;
+                }
+                topByPrefix.put(prefix, top.sorted());
+            }
+        }
+
+        return new SuggestSnapshot(documents, keys, keyRanks, topByPrefix);
+    }
+
+    int size() {
+        return documents.length;
+    }
+
+    List<Document> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        int[] ranks;
+        if (normalized.length() <= PRECOMPUTED_PREFIX_LENGTH) {
+            ranks = topByPrefix.getOrDefault(normalized, new int[0]);
+        } else {
+            TopRanks top = new TopRanks(limit);
+            for (int i = lowerBound(normalized); i < keys.length && keys[i].startsWith(normalized); i++) {
+                top.offer(keyRanks[i]);
+            }
+            ranks = top.sorted();
+        }
+
+        List<Document> result = new ArrayList<>(Math.min(limit, ranks.length));
+        for (int i = 0; i < ranks.length && i < limit; i++) {
+            result.add(documents[ranks[i]]);
+        }
+        return result;
+    }
+
+    /**
+     * Префикс запроса в форме ключа; пробел в конце сохраняется,
+     * чтобы "pro " не совпадало с "professional"
+     */
+    static String normalize(String prefix) {
+        if (prefix == null) {
+            return "";
+        }
+        String normalized = String.join(" ", TextTokenizer.tokenize(prefix));
+        if (!normalized.isEmpty() && !Character.isLetterOrDigit(prefix.charAt(prefix.length() - 1))) {
+            normalized += " ";
+        }
+        return normalized.length() > MAX_KEY_LENGTH ? normalized.substring(0, MAX_KEY_LENGTH) : normalized;
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static String join(List<String> tokens, int start) {
+        StringBuilder key = new StringBuilder();
+        for (int i = start; i < tokens.size() && key.length() < MAX_KEY_LENGTH; i++) {
+            if (i > start) {
+                key.append(' ');
+            }
+            key.append(tokens.get(i));
+        }
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key.toString();
+    }
+
+    /**
+     * k наименьших различных рангов (товар может совпасть по нескольким ключам)
+     */
+    private static final class TopRanks {
+
+        private final int limit;
+        private final TreeSet<Integer> ranks = new TreeSet<>();
+
+        private TopRanks(int limit) {
+            this.limit = limit;
+        }
+
+        private void offer(int rank) {
+            if (ranks.size() < limit) {
+                ranks.add(rank);
+            } else if (rank < ranks.last() && ranks.add(rank)) {
+                ranks.pollLast();
+            }
+        }
+
+        private int[] sorted() {
+            return ranks.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+}
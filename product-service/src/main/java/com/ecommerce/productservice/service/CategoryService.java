@@ -1,23 +1,28 @@
 package com.ecommerce.productservice.service;
 
+import com.ecommerce.productservice.cache.CategoryTreeCache;
 import com.ecommerce.productservice.dto.CategoryResponse;
 import com.ecommerce.productservice.dto.CreateCategoryRequest;
+import com.ecommerce.productservice.dto.ResourceVersion;
 import com.ecommerce.productservice.entity.Category;
+import com.ecommerce.productservice.event.CategoryChangedEvent;
 import com.ecommerce.productservice.exception.DuplicateResourceException;
 import com.ecommerce.productservice.exception.ResourceNotFoundException;
 import com.ecommerce.productservice.repository.CategoryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CategoryTreeCache categoryTreeCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public CategoryResponse createCategory(CreateCategoryRequest request) {
@@ -39,35 +44,34 @@ public class CategoryService {
                 .build();
 
         category = categoryRepository.save(category);
-        return mapToCategoryResponse(category);
+        return publishChange(category);
     }
 
-    @Transactional(readOnly = true)
     public CategoryResponse getCategoryById(Long id) {
-        Category category = categoryRepository.findById(id)
+        return categoryTreeCache.getTree().findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
-        return mapToCategoryResponse(category);
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Версия снимка категорий: общий валидатор для списков и дерева категорий
+     */
+    public ResourceVersion getCategoriesVersion() {
+        return categoryTreeCache.getTree().getVersion();
+    }
+
     public List<CategoryResponse> getAllCategories() {
-        return categoryRepository.findByActiveTrue().stream()
-                .map(this::mapToCategoryResponse)
-                .collect(Collectors.toList());
+        return categoryTreeCache.getTree().getActive();
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Дерево активных категорий из снимка в памяти, без обращения к БД
+     */
     public List<CategoryResponse> getRootCategories() {
-        return categoryRepository.findByParentIsNullAndActiveTrue().stream()
-                .map(this::mapToCategoryResponseWithChildren)
-                .collect(Collectors.toList());
+        return categoryTreeCache.getTree().getRoots();
     }
 
-    @Transactional(readOnly = true)
     public List<CategoryResponse> getChildCategories(Long parentId) {
-        return categoryRepository.findByParentIdAndActiveTrue(parentId).stream()
-                .map(this::mapToCategoryResponse)
-                .collect(Collectors.toList());
+        return categoryTreeCache.getTree().getActiveChildren(parentId);
     }
 
     @Transactional
@@ -89,7 +93,7 @@ public class CategoryService {
         }
 
         category = categoryRepository.save(category);
-        return mapToCategoryResponse(category);
+        return publishChange(category);
     }
 
     @Transactional
@@ -97,37 +101,25 @@ public class CategoryService {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
         category.setActive(false);
-        categoryRepository.save(category);
+        category = categoryRepository.save(category);
+        publishChange(category);
     }
 
-    private CategoryResponse mapToCategoryResponse(Category category) {
-        return CategoryResponse.builder()
-                .id(category.getId())
-                .name(category.getName())
-                .description(category.getDescription())
-                .parentId(category.getParent() != null ? category.getParent().getId() : null)
-                .active(category.isActive())
-                .createdAt(category.getCreatedAt())
-                .updatedAt(category.getUpdatedAt())
-                .build();
+    private CategoryResponse publishChange(Category category) {
+        CategoryResponse response = mapToCategoryResponse(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(response));
+        return response;
     }
 
-    private CategoryResponse mapToCategoryResponseWithChildren(Category category) {
-        List<CategoryResponse> children = category.getChildren().stream()
-                .filter(Category::isActive)
-                .map(this::mapToCategoryResponseWithChildren)
-                .collect(Collectors.toList());
-
+    private CategoryResponse mapToCategoryResponse(Category category) {
         return CategoryResponse.builder()
                 .id(category.getId())
                 .name(category.getName())
                 .description(category.getDescription())
                 .parentId(category.getParent() != null ? category.getParent().getId() : null)
-                .children(children)
                 .active(category.isActive())
                 .createdAt(category.getCreatedAt())
                 .updatedAt(category.getUpdatedAt())
                 .build();
     }
 }
-
@@ -0,0 +1,50 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.exception.BadRequestException;
+import com.ecommerce.productservice.repository.ProductSortKey;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Позиция в keyset-списке товаров: сортировка, значение поля сортировки и id
+ * последнего товара страницы. Клиенту отдается как непрозрачная base64url-строка
+ */
+record ProductCursor(ProductSortKey sortKey, boolean descending, Long categoryId, String key, Long id) {
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "\n";
+
+    String encode() {
+        String raw = String.join(SEPARATOR,
+                VERSION,
+                sortKey.name(),
+                descending ? "desc" : "asc",
+                categoryId != null ? categoryId.toString() : "",
+                String.valueOf(id),
+                key);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // Значение ключа последнее, поэтому может содержать разделитель
+            String[] parts = raw.split(SEPARATOR, 6);
+            if (parts.length != 6 || !VERSION.equals(parts[0])) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            ProductSortKey sortKey = ProductSortKey.valueOf(parts[1]);
+            ProductCursor cursor = new ProductCursor(
+                    sortKey,
+                    "desc".equals(parts[2]),
+                    parts[3].isEmpty() ? null : Long.valueOf(parts[3]),
+                    parts[5],
+                    Long.valueOf(parts[4]));
+            sortKey.parse(cursor.key());
+            return cursor;
+        } catch (RuntimeException ex) {
+            throw new BadRequestException("Invalid cursor", ex);
+        }
+    }
+}
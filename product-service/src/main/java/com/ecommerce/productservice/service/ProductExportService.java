@@ -0,0 +1,93 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.cache.CategoryTree;
+import com.ecommerce.productservice.cache.CategoryTreeCache;
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.repository.ProductChangeRow;
+import com.ecommerce.productservice.repository.ProductExportRow;
+import com.ecommerce.productservice.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Потоковая выгрузка каталога в NDJSON
+ * Строки читаются серверным курсором (fetch size) и сразу пишутся в ответ,
+ * поэтому память не зависит от размера каталога
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ProductRepository productRepository;
+    private final CategoryTreeCache categoryTreeCache;
+    private final JsonMapper jsonMapper;
+
+    /**
+     * Без updatedSince выгружает все активные товары по возрастанию id,
+     * иначе - все товары, измененные начиная с updatedSince (в том числе снятые
+     * с продажи, active=false), по возрастанию updatedAt, без остатка (quantity)
+     *
+     * @return число выгруженных товаров
+     */
+    @Transactional(readOnly = true)
+    public long exportProducts(LocalDateTime updatedSince, OutputStream output) throws IOException {
+        long startTime = System.currentTimeMillis();
+        CategoryTree categories = categoryTreeCache.getTree();
+        OutputStream out = new BufferedOutputStream(output, BUFFER_SIZE);
+
+        long count;
+        if (updatedSince != null) {
+            try (Stream<ProductChangeRow> rows = productRepository.streamChangedSince(updatedSince)) {
+                count = write(rows, row -> toResponse(row, categories).build(), out);
+            }
+        } else {
+            try (Stream<ProductExportRow> rows = productRepository.streamActiveForExport()) {
+                count = write(rows, row -> toResponse(row, categories).quantity(row.getQuantity()).build(), out);
+            }
+        }
+        out.flush();
+
+        log.info("Product export finished: products={}, updatedSince={}, took {} ms",
+                count, updatedSince, System.currentTimeMillis() - startTime);
+        return count;
+    }
+
+    private <T> long write(Stream<T> rows, Function<T, ProductResponse> mapper, OutputStream out) throws IOException {
+        long count = 0;
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            out.write(jsonMapper.writeValueAsBytes(mapper.apply(iterator.next())));
+            out.write('\n');
+            count++;
+        }
+        return count;
+    }
+
+    private static ProductResponse.ProductResponseBuilder toResponse(ProductChangeRow row, CategoryTree categories) {
+        return ProductResponse.builder()
+                .id(row.getId())
+                .name(row.getName())
+                .description(row.getDescription())
+                .price(row.getPrice())
+                .sku(row.getSku())
+                .category(row.getCategoryId() != null ? categories.findById(row.getCategoryId()).orElse(null) : null)
+                .imageUrl(row.getImageUrl())
+                .active(Boolean.TRUE.equals(row.getActive()))
+                .createdAt(row.getCreatedAt())
+                .updatedAt(row.getUpdatedAt());
+    }
+}
@@ -0,0 +1,450 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.cache.CategoryTree;
+import com.ecommerce.productservice.cache.CategoryTreeCache;
+import com.ecommerce.productservice.dto.CreateProductRequest;
+import com.ecommerce.productservice.dto.ImportRowError;
+import com.ecommerce.productservice.dto.ProductImportReport;
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.dto.ProductSyncReport;
+import com.ecommerce.productservice.event.ProductChangedEvent;
+import com.ecommerce.productservice.importer.ImportRow;
+import com.ecommerce.productservice.importer.ProductImportReader;
+import com.ecommerce.productservice.repository.ProductBatchRepository;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.repository.ProductStockRow;
+import com.ecommerce.productservice.repository.ProductSyncRow;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Массовая загрузка и синхронизация товаров из NDJSON/CSV
+ * Строки читаются и проверяются по мере поступления, категории берутся из
+ * снимка в памяти, а запись идет пачками JDBC batch в отдельных транзакциях,
+ * поэтому память ограничена размером пачки и отчета об ошибках
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductImportService {
+
+    private final ProductRepository productRepository;
+    private final ProductBatchRepository productBatchRepository;
+    private final CategoryTreeCache categoryTreeCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final JsonMapper jsonMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${products.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${products.import.max-errors:1000}")
+    private int maxErrors;
+
+    @Value("${products.import.max-deactivate-fraction:0.2}")
+    private double maxDeactivateFraction;
+
+    public ProductImportReport importProducts(MediaType contentType, InputStream input) throws IOException {
+        long startTime = System.currentTimeMillis();
+        ProductImportReader reader = ProductImportReader.open(contentType, input, jsonMapper);
+        CategoryTree categories = loadCategories();
+
+        Progress progress = new Progress(maxErrors);
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+        ImportRow row;
+        while ((row = reader.next()) != null) {
+            progress.received++;
+            String error = row.isFailed() ? row.error() : validate(row.request(), categories);
+            if (error != null) {
+                progress.fail(row, error);
+                continue;
+            }
+
+            batch.add(row);
+            if (batch.size() >= batchSize) {
+                insertNewSkus(batch, categories, progress);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertNewSkus(batch, categories, progress);
+        }
+
+        progress.finish();
+        log.info("Product import finished: received={}, imported={}, failed={}, took {} ms",
+                progress.received, progress.created, progress.failed, progress.durationMillis(startTime));
+
+        return ProductImportReport.builder()
+                .received(progress.received)
+                .imported(progress.created)
+                .failed(progress.failed)
+                .errors(progress.errors)
+                .errorsTruncated(progress.failed > progress.errors.size())
+                .durationMillis(progress.durationMillis(startTime))
+                .build();
+    }
+
+    /**
+     * Приводит каталог к содержимому фида: товары сопоставляются по SKU, а
+     * хеш полей каталога сравнивается с сохраненным, поэтому записываются
+     * только новые, измененные и (при deactivateMissing) пропавшие из фида товары.
+     * Снятие с продажи пропускается, если фид содержит ошибки, не содержит
+     * ни одной корректной строки или снял бы больше max-deactivate-fraction каталога
+     */
+    public ProductSyncReport syncProducts(MediaType contentType, InputStream input,
+                                          boolean deactivateMissing) throws IOException {
+        long startTime = System.currentTimeMillis();
+        ProductImportReader reader = ProductImportReader.open(contentType, input, jsonMapper);
+        CategoryTree categories = loadCategories();
+        Map<String, SyncState> catalog = loadSyncState();
+
+        Progress progress = new Progress(maxErrors);
+        List<ImportRow> inserts = new ArrayList<>(batchSize);
+        List<ImportRow> updates = new ArrayList<>(batchSize);
+        List<Long> updateIds = new ArrayList<>(batchSize);
+        long validRows = 0;
+        ImportRow row;
+        while ((row = reader.next()) != null) {
+            progress.received++;
+            String error = row.isFailed() ? row.error() : validate(row.request(), categories);
+            if (error == null && row.request().getSku() == null) {
+                error = "SKU is required for sync";
+            }
+            if (error != null) {
+                // Товар есть в фиде, хоть строка и испорчена - с продажи его не снимаем
+                if (row.request() != null && row.request().getSku() != null) {
+                    SyncState state = catalog.get(row.request().getSku());
+                    if (state != null) {
+                        state.seen = true;
+                    }
+                }
+                progress.fail(row, error);
+                continue;
+            }
+            validRows++;
+
+            String sku = row.request().getSku();
+            SyncState state = catalog.get(sku);
+            if (state == null) {
+                catalog.put(sku, SyncState.NEW);
+                inserts.add(row);
+                if (inserts.size() >= batchSize) {
+                    insert(inserts, categories, progress);
+                    inserts.clear();
+                }
+            } else if (state.seen) {
+                progress.fail(row, "Duplicate SKU in feed: " + sku);
+            } else {
+                state.seen = true;
+                if (state.active && state.contentHash == ProductBatchRepository.contentHash(row.request())) {
+                    progress.unchanged++;
+                    continue;
+                }
+                updates.add(row);
+                updateIds.add(state.id);
+                if (updates.size() >= batchSize) {
+                    update(updateIds, updates, categories, progress);
+                    updates.clear();
+                    updateIds.clear();
+                }
+            }
+        }
+        if (!inserts.isEmpty()) {
+            insert(inserts, categories, progress);
+        }
+        if (!updates.isEmpty()) {
+            update(updateIds, updates, categories, progress);
+        }
+        boolean deactivationSkipped = false;
+        if (deactivateMissing) {
+            deactivationSkipped = !deactivateUnseen(catalog, validRows, progress);
+        }
+
+        progress.finish();
+        log.info("Product sync finished: received={}, created={}, updated={}, unchanged={}, deactivated={}, failed={}, took {} ms",
+                progress.received, progress.created, progress.updated, progress.unchanged,
+                progress.deactivated, progress.failed, progress.durationMillis(startTime));
+
+        return ProductSyncReport.builder()
+                .received(progress.received)
+                .created(progress.created)
+                .updated(progress.updated)
+                .unchanged(progress.unchanged)
+                .deactivated(progress.deactivated)
+                .deactivationSkipped(deactivationSkipped)
+                .failed(progress.failed)
+                .errors(progress.errors)
+                .errorsTruncated(progress.failed > progress.errors.size())
+                .durationMillis(progress.durationMillis(startTime))
+                .build();
+    }
+
+    private CategoryTree loadCategories() {
+        // Свежий снимок: категории, созданные на другом экземпляре, тоже должны находиться
+        categoryTreeCache.reload();
+        return categoryTreeCache.getTree();
+    }
+
+    private Map<String, SyncState> loadSyncState() {
+        Map<String, SyncState> catalog = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<ProductSyncRow> rows = productRepository.streamSyncState()) {
+                rows.forEach(row -> catalog.put(row.getSku(), new SyncState(row.getId(),
+                        row.getContentHash() != null ? row.getContentHash() : 0L,
+                        Boolean.TRUE.equals(row.getActive()), false)));
+            }
+        });
+        return catalog;
+    }
+
+    private String validate(CreateProductRequest request, CategoryTree categories) {
+        Set<ConstraintViolation<CreateProductRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (request.getCategoryId() != null && categories.findById(request.getCategoryId()).isEmpty()) {
+            return "Category not found with id: " + request.getCategoryId();
+        }
+        return null;
+    }
+
+    private void insertNewSkus(List<ImportRow> batch, CategoryTree categories, Progress progress) {
+        // SKU, уже занятые в БД (в том числе предыдущими пачками) или повторенные в пачке
+        Set<String> skus = batch.stream()
+                .map(row -> row.request().getSku())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> taken = skus.isEmpty() ? new HashSet<>() : new HashSet<>(productRepository.findExistingSkus(skus));
+
+        List<ImportRow> rows = new ArrayList<>(batch.size());
+        for (ImportRow row : batch) {
+            String sku = row.request().getSku();
+            if (sku != null && !taken.add(sku)) {
+                progress.fail(row, "Product with SKU already exists: " + sku);
+            } else {
+                rows.add(row);
+            }
+        }
+        if (!rows.isEmpty()) {
+            insert(rows, categories, progress);
+        }
+    }
+
+    private void insert(List<ImportRow> rows, CategoryTree categories, Progress progress) {
+        progress.created += write(rows, progress, batch -> {
+            LocalDateTime now = LocalDateTime.now();
+            long[] ids = productBatchRepository.insert(requests(batch), now);
+            for (int i = 0; i < ids.length; i++) {
+                publish(ids[i], ProductChangedEvent.ChangeType.CREATED,
+                        toResponse(ids[i], batch.get(i).request(), categories, now, now));
+            }
+        });
+    }
+
+    private void update(List<Long> ids, List<ImportRow> rows, CategoryTree categories, Progress progress) {
+        Map<ImportRow, Long> idByRow = new IdentityHashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            idByRow.put(rows.get(i), ids.get(i));
+        }
+        progress.updated += write(rows, progress, batch -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> batchIds = batch.stream().map(idByRow::get).toList();
+            productBatchRepository.update(batchIds, requests(batch), now);
+            // Остаток фидом не меняется - в событие идет текущий из БД
+            Map<Long, Integer> stock = productRepository.findStockByIdIn(batchIds).stream()
+                    .collect(Collectors.toMap(ProductStockRow::getId, ProductStockRow::getQuantity));
+            for (int i = 0; i < batch.size(); i++) {
+                ProductResponse response = toResponse(batchIds.get(i), batch.get(i).request(), categories, null, now);
+                response.setQuantity(stock.get(batchIds.get(i)));
+                publish(batchIds.get(i), ProductChangedEvent.ChangeType.UPDATED, response);
+            }
+        });
+    }
+
+    /**
+     * Записывает пачку в одной транзакции; если она откатилась целиком
+     * (например, SKU занят параллельной вставкой), повторяет построчно,
+     * чтобы отчитаться только о плохих строках
+     *
+     * @return число записанных строк
+     */
+    private int write(List<ImportRow> rows, Progress progress, Consumer<List<ImportRow>> writer) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> writer.accept(rows));
+            return rows.size();
+        } catch (DataAccessException ex) {
+            log.debug("Import batch failed, retrying row by row: {}", ex.getMostSpecificCause().getMessage());
+        }
+
+        int written = 0;
+        for (ImportRow row : rows) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> writer.accept(List.of(row)));
+                written++;
+            } catch (DataAccessException ex) {
+                progress.fail(row, "Write failed: " + ex.getMostSpecificCause().getMessage());
+            }
+        }
+        return written;
+    }
+
+    /**
+     * @return false, если снятие с продажи пропущено как небезопасное
+     */
+    private boolean deactivateUnseen(Map<String, SyncState> catalog, long validRows, Progress progress) {
+        List<Long> unseen = new ArrayList<>();
+        long active = 0;
+        for (SyncState state : catalog.values()) {
+            if (state.active && state != SyncState.NEW) {
+                active++;
+                if (!state.seen) {
+                    unseen.add(state.id);
+                }
+            }
+        }
+        if (unseen.isEmpty()) {
+            return true;
+        }
+
+        // Испорченный или пустой фид не должен снимать каталог с продажи
+        String reason = null;
+        if (progress.failed > 0) {
+            reason = "feed has " + progress.failed + " failed rows";
+        } else if (validRows == 0) {
+            reason = "feed has no valid rows";
+        } else if (unseen.size() > maxDeactivateFraction * active) {
+            reason = unseen.size() + " of " + active + " active products are missing from feed";
+        }
+        if (reason != null) {
+            log.warn("Product sync skipped deactivation: {}", reason);
+            return false;
+        }
+
+        for (int from = 0; from < unseen.size(); from += batchSize) {
+            deactivate(unseen.subList(from, Math.min(from + batchSize, unseen.size())), progress);
+        }
+        return true;
+    }
+
+    private void deactivate(List<Long> ids, Progress progress) {
+        transactionTemplate.executeWithoutResult(status -> {
+            productBatchRepository.deactivate(ids, LocalDateTime.now());
+            // Для индекса поиска и кеша снятый с продажи товар равнозначен удаленному
+            ids.forEach(id -> publish(id, ProductChangedEvent.ChangeType.DELETED, null));
+        });
+        progress.deactivated += ids.size();
+    }
+
+    private static List<CreateProductRequest> requests(List<ImportRow> rows) {
+        return rows.stream().map(ImportRow::request).toList();
+    }
+
+    private void publish(long id, ProductChangedEvent.ChangeType changeType, ProductResponse product) {
+        eventPublisher.publishEvent(ProductChangedEvent.builder()
+                .productId(id)
+                .changeType(changeType)
+                .product(product)
+                .build());
+    }
+
+    private static ProductResponse toResponse(long id, CreateProductRequest request, CategoryTree categories,
+                                              LocalDateTime createdAt, LocalDateTime updatedAt) {
+        return ProductResponse.builder()
+                .id(id)
+                .name(request.getName())
+                .description(request.getDescription())
+                .price(request.getPrice())
+                .quantity(request.getQuantity())
+                .sku(request.getSku())
+                .category(request.getCategoryId() != null
+                        ? categories.findById(request.getCategoryId()).orElse(null)
+                        : null)
+                .imageUrl(request.getImageUrl())
+                .active(true)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+    /**
+     * Состояние товара каталога при синхронизации
+     */
+    private static final class SyncState {
+
+        /**
+         * Товар, впервые встреченный в фиде; нужен только для поиска повторов SKU
+         */
+        private static final SyncState NEW = new SyncState(0, 0, true, true);
+
+        private final long id;
+        private final long contentHash;
+        private final boolean active;
+        private boolean seen;
+
+        private SyncState(long id, long contentHash, boolean active, boolean seen) {
+            this.id = id;
+            this.contentHash = contentHash;
+            this.active = active;
+            this.seen = seen;
+        }
+    }
+
+    private static final class Progress {
+
+        private final int maxErrors;
+        private final List<ImportRowError> errors = new ArrayList<>();
+        private long received;
+        private long created;
+        private long updated;
+        private long unchanged;
+        private long deactivated;
+        private long failed;
+        private long finishedAt;
+
+        private Progress(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void fail(ImportRow row, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(ImportRowError.builder()
+                        .line(row.line())
+                        .sku(row.request() != null ? row.request().getSku() : null)
+                        .message(message)
+                        .build());
+            }
+        }
+
+        private void finish() {
+            finishedAt = System.currentTimeMillis();
+            // Ошибки записи приходят позже ошибок проверки следующих строк
+            errors.sort(Comparator.comparingLong(ImportRowError::getLine));
+        }
+
+        private long durationMillis(long startTime) {
+            return finishedAt - startTime;
+        }
+    }
+}
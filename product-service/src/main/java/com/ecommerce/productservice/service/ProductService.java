@@ -1,27 +1,75 @@
 package com.ecommerce.productservice.service;
 
+import com.ecommerce.productservice.cache.CategoryTree;
+import com.ecommerce.productservice.cache.CategoryTreeCache;
+import com.ecommerce.productservice.cache.ProductCache;
 import com.ecommerce.productservice.dto.*;
 import com.ecommerce.productservice.entity.Category;
 import com.ecommerce.productservice.entity.Product;
+import com.ecommerce.productservice.exception.BadRequestException;
 import com.ecommerce.productservice.exception.DuplicateResourceException;
+import com.ecommerce.productservice.exception.IndexNotReadyException;
 import com.ecommerce.productservice.exception.InsufficientStockException;
+import com.ecommerce.productservice.inventory.HotStockInventory;
+import com.ecommerce.productservice.event.ProductChangedEvent;
 import com.ecommerce.productservice.exception.ResourceNotFoundException;
+import com.ecommerce.productservice.recommendation.FrequentlyBoughtTogether;
 import com.ecommerce.productservice.repository.CategoryRepository;
 import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.repository.ProductSortKey;
+import com.ecommerce.productservice.repository.ProductStockRow;
+import com.ecommerce.productservice.repository.ProductVersionRow;
+import com.ecommerce.productservice.search.ProductFacetIndex;
+import com.ecommerce.productservice.search.ProductSearchIndex;
+import com.ecommerce.productservice.search.ProductSuggester;
+import com.ecommerce.productservice.search.SearchResultCache;
+import com.ecommerce.productservice.trending.TrendingProducts;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_SUGGESTIONS = 20;
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final SearchResultCache searchResultCache;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductSuggester productSuggester;
+    private final TrendingProducts trendingProducts;
+    private final FrequentlyBoughtTogether frequentlyBoughtTogether;
+    private final CategoryTreeCache categoryTreeCache;
+    private final ProductCache productCache;
+    private final HotStockInventory hotStockInventory;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public ProductResponse createProduct(CreateProductRequest request) {
@@ -47,48 +95,260 @@ public class ProductService {
                 .build();
 
         product = productRepository.save(product);
-        return mapToProductResponse(product);
+        ProductResponse response = mapToProductResponse(product);
+        publishChange(product.getId(), ProductChangedEvent.ChangeType.CREATED, response);
+        return response;
     }
 
-    @Transactional(readOnly = true)
     public ProductResponse getProductById(Long id) {
-        Product product = productRepository.findById(id)
+        ProductResponse product = productCache.get(id, key -> productRepository.findWithCategoryById(key)
+                .map(this::mapToProductResponse)
+                .orElse(null));
+        if (product == null) {
+            throw new ResourceNotFoundException("Product not found with id: " + id);
+        }
+        return product;
+    }
+
+    /**
+     * Версия товара для условного GET: из кеша товаров или запросом только updatedAt и остатка,
+     * без загрузки и сериализации товара
+     */
+    public ResourceVersion getProductVersion(Long id) {
+        ProductResponse cached = productCache.getIfPresent(id);
+        if (cached != null) {
+            return ResourceVersion.of(cached);
+        }
+        return productRepository.findVersionById(id)
+                .map(ProductService::toVersion)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
-        return mapToProductResponse(product);
     }
 
-    @Transactional(readOnly = true)
-    public ProductResponse getProductBySku(String sku) {
-        Product product = productRepository.findBySku(sku)
+    public ResourceVersion getProductVersionBySku(String sku) {
+        ProductResponse cached = productCache.getIfPresentBySku(sku);
+        if (cached != null) {
+            return ResourceVersion.of(cached);
+        }
+        return productRepository.findVersionBySku(sku)
+                .map(ProductService::toVersion)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with SKU: " + sku));
-        return mapToProductResponse(product);
     }
 
-    @Transactional(readOnly = true)
-    public Page<ProductResponse> getAllProducts(Pageable pageable) {
-        return productRepository.findByActiveTrue(pageable)
-                .map(this::mapToProductResponse);
+    public ProductResponse getProductBySku(String sku) {
+        ProductResponse product = productCache.getBySku(sku, () -> productRepository.findWithCategoryBySku(sku)
+                .map(this::mapToProductResponse)
+                .orElse(null));
+        if (product == null) {
+            throw new ResourceNotFoundException("Product not found with SKU: " + sku);
+        }
+        return product;
     }
 
+    /**
+     * Keyset (seek) пагинация активных товаров по (sort, id)
+     * Стоимость страницы не зависит от ее номера; COUNT выполняется только по запросу
+     *
+     * @param categoryId null - все категории
+     * @param cursor     nextCursor предыдущей страницы; задает сортировку вместо sort/direction
+     */
     @Transactional(readOnly = true)
-    public Page<ProductResponse> getProductsByCategory(Long categoryId, Pageable pageable) {
-        return productRepository.findByCategoryIdAndActiveTrue(categoryId, pageable)
-                .map(this::mapToProductResponse);
+    public ProductPageResponse listProducts(Long categoryId, String sort, String direction,
+                                            String cursor, int size, boolean includeTotal) {
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+
+        ProductSortKey sortKey;
+        boolean descending;
+        Object afterKey = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            ProductCursor position = ProductCursor.decode(cursor);
+            if (!Objects.equals(position.categoryId(), categoryId)) {
+                throw new BadRequestException("Cursor belongs to a different listing");
+            }
+            sortKey = position.sortKey();
+            descending = position.descending();
+            afterKey = sortKey.parse(position.key());
+            afterId = position.id();
+        } else {
+            sortKey = ProductSortKey.fromParameter(sort);
+            descending = "desc".equalsIgnoreCase(direction);
+        }
+
+        // Запрашиваем на одну строку больше, чтобы узнать, есть ли следующая страница
+        List<Product> products = productRepository.findActivePage(
+                categoryId, sortKey, descending, afterKey, afterId, pageSize + 1);
+        boolean hasNext = products.size() > pageSize;
+        if (hasNext) {
+            products = products.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            Product last = products.getLast();
+            nextCursor = new ProductCursor(sortKey, descending, categoryId, sortKey.valueOf(last), last.getId()).encode();
+        }
+
+        Long total = null;
+        if (includeTotal) {
+            total = categoryId != null
+                    ? productRepository.countByCategoryIdAndActiveTrue(categoryId)
+                    : productRepository.countByActiveTrue();
+        }
+
+        List<ProductResponse> content = products.stream()
+                .map(this::mapToProductResponse)
+                .toList();
+        return ProductPageResponse.builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .totalElements(total)
+                .build();
     }
 
+    /**
+     * Поиск по инвертированному индексу с сортировкой по релевантности
+     * Пока индекс строится после старта, используется запрос LIKE к БД
+     */
     @Transactional(readOnly = true)
     public Page<ProductResponse> searchProducts(String keyword, Pageable pageable) {
-        return productRepository.searchByKeyword(keyword, pageable)
-                .map(this::mapToProductResponse);
+        if (!productSearchIndex.isReady()) {
+            return productRepository.searchByKeyword(keyword, pageable)
+                    .map(this::mapToProductResponse);
+        }
+
+        // Популярные запросы отдаются из кеша id, товары страницы - из кеша товаров
+        ProductSearchIndex.SearchHits hits = searchResultCache.get(keyword, pageable.getOffset(), pageable.getPageSize(),
+                () -> productSearchIndex.search(keyword, pageable.getOffset(), pageable.getPageSize()));
+        return new PageImpl<>(getProductsByIds(hits.ids()), pageable, hits.total());
     }
 
-    @Transactional(readOnly = true)
-    public List<ProductResponse> getProductsByIds(List<Long> ids) {
-        return productRepository.findByIdIn(ids).stream()
-                .map(this::mapToProductResponse)
+    /**
+     * Подсказки для строки поиска, без обращения к БД
+     */
+    public List<ProductSuggestion> suggestProducts(String prefix, int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        return productSuggester.suggest(prefix, limit);
+    }
+
+    /**
+     * Популярные сейчас товары из счетчиков просмотров в памяти;
+     * товары берутся из кеша, снятые с продажи пропускаются
+     */
+    public List<ProductResponse> getTrendingProducts(int limit) {
+        if (limit < 1 || limit > TrendingProducts.MAX_LIMIT) {
+            throw new BadRequestException("Limit must be between 1 and " + TrendingProducts.MAX_LIMIT);
+        }
+        return getProductsByIds(trendingProducts.top(limit)).stream()
+                .filter(ProductResponse::isActive)
                 .toList();
     }
 
+    public void recordView(Long productId) {
+        trendingProducts.recordView(productId);
+    }
+
+    /**
+     * Товары, которые чаще всего покупают вместе с данным, из статистики заказов в памяти
+     */
+    public List<ProductResponse> getRelatedProducts(Long id, int limit) {
+        if (limit < 1 || limit > FrequentlyBoughtTogether.MAX_LIMIT) {
+            throw new BadRequestException("Limit must be between 1 and " + FrequentlyBoughtTogether.MAX_LIMIT);
+        }
+        getProductById(id);
+        return getProductsByIds(frequentlyBoughtTogether.related(id, limit)).stream()
+                .filter(ProductResponse::isActive)
+                .toList();
+    }
+
+    /**
+     * Фильтр по поддереву категории, диапазону цен, наличию и активности
+     * с подсчетом фасетов; выполняется по битовым индексам в памяти,
+     * из БД загружаются только товары страницы, отсутствующие в кеше
+     */
+    public ProductFilterResponse filterProducts(Long categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+                                                boolean inStock, boolean active, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page must be non-negative and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new BadRequestException("minPrice must not exceed maxPrice");
+        }
+        if (!productFacetIndex.isReady()) {
+            throw new IndexNotReadyException("Product filter index is being built, please retry later");
+        }
+
+        CategoryTree categories = categoryTreeCache.getTree();
+        Set<Long> categoryIds = categoryId != null ? subtreeIds(categories, categoryId) : null;
+        ProductFacetIndex.FacetHits hits = productFacetIndex.filter(
+                new ProductFacetIndex.Query(categoryIds, minPrice, maxPrice, inStock, active),
+                (long) page * size, size);
+
+        // Счетчик категории включает товары всех ее подкатегорий
+        Map<Long, Long> subtreeCounts = new HashMap<>();
+        hits.categoryCounts().forEach((id, count) -> {
+            Long current = id;
+            while (current != null) {
+                subtreeCounts.merge(current, count, Long::sum);
+                current = categories.findById(current).map(CategoryResponse::getParentId).orElse(null);
+            }
+        });
+        List<CategoryFacet> categoryFacets = subtreeCounts.entrySet().stream()
+                .map(entry -> categories.findById(entry.getKey())
+                        .map(category -> CategoryFacet.builder()
+                                .categoryId(category.getId())
+                                .name(category.getName())
+                                .parentId(category.getParentId())
+                                .count(entry.getValue())
+                                .build())
+                        .orElse(null))
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(CategoryFacet::getCategoryId))
+                .toList();
+
+        List<BigDecimal> buckets = ProductFacetIndex.PRICE_BUCKETS;
+        List<PriceFacet> priceFacets = new ArrayList<>(buckets.size());
+        for (int i = 0; i < buckets.size(); i++) {
+            priceFacets.add(PriceFacet.builder()
+                    .from(buckets.get(i))
+                    .to(i + 1 < buckets.size() ? buckets.get(i + 1) : null)
+                    .count(hits.priceBucketCounts()[i])
+                    .build());
+        }
+
+        return ProductFilterResponse.builder()
+                .content(getProductsByIds(hits.ids()))
+                .page(page)
+                .size(size)
+                .totalElements(hits.total())
+                .categories(categoryFacets)
+                .prices(priceFacets)
+                .build();
+    }
+
+    private static Set<Long> subtreeIds(CategoryTree categories, Long categoryId) {
+        Set<Long> ids = new HashSet<>();
+        Deque<Long> pending = new ArrayDeque<>(List.of(categoryId));
+        while (!pending.isEmpty()) {
+            Long id = pending.pop();
+            if (ids.add(id)) {
+                categories.getActiveChildren(id).forEach(child -> pending.push(child.getId()));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Из БД загружаются только товары, отсутствующие в кеше
+     */
+    public List<ProductResponse> getProductsByIds(List<Long> ids) {
+        return productCache.getAll(ids, missing -> productRepository.findWithCategoryByIdIn(missing).stream()
+                .collect(Collectors.toMap(Product::getId, this::mapToProductResponse)));
+    }
+
     @Transactional
     public ProductResponse updateProduct(Long id, UpdateProductRequest request) {
         Product product = productRepository.findById(id)
@@ -119,7 +379,9 @@ public class ProductService {
         }
 
         product = productRepository.save(product);
-        return mapToProductResponse(product);
+        ProductResponse response = mapToProductResponse(product);
+        publishChange(id, ProductChangedEvent.ChangeType.UPDATED, response);
+        return response;
     }
 
     @Transactional
@@ -128,27 +390,180 @@ public class ProductService {
             throw new ResourceNotFoundException("Product not found with id: " + id);
         }
         productRepository.deleteById(id);
+        publishChange(id, ProductChangedEvent.ChangeType.DELETED, null);
     }
 
-    @Transactional
+    /**
+     * Горячие товары резервируются из локального резерва без транзакции БД
+     */
     public boolean reserveStock(Long productId, Integer quantity) {
+        if (hotStockInventory.isHot(productId)) {
+            hotStockInventory.reserve(productId, quantity);
+            cancelHotOnRollback(Map.of(productId, quantity));
+            return true;
+        }
+
         int updated = productRepository.decreaseQuantity(productId, quantity);
         if (updated == 0) {
             throw new InsufficientStockException("Insufficient stock for product: " + productId);
         }
+        publishChange(productId, ProductChangedEvent.ChangeType.STOCK_CHANGED, null);
         return true;
     }
 
-    @Transactional
     public void releaseStock(Long productId, Integer quantity) {
+        if (hotStockInventory.isHot(productId)) {
+            hotStockInventory.release(productId, quantity);
+            return;
+        }
+
         productRepository.increaseQuantity(productId, quantity);
+        publishChange(productId, ProductChangedEvent.ChangeType.STOCK_CHANGED, null);
+    }
+
+    /**
+     * Резервирует все позиции: либо все, либо ни одной
+     * Повторяющиеся товары суммируются. Обычные товары списываются в одной
+     * транзакции в порядке id, чтобы параллельные заказы блокировали строки
+     * в одном порядке (без deadlock); горячие - из локального резерва
+     */
+    public boolean reserveStockBatch(List<InventoryRequest> items) {
+        Map<Long, Integer> quantities = mergeByProductId(items);
+        Map<Long, Integer> hot = new TreeMap<>();
+        Map<Long, Integer> regular = new TreeMap<>();
+        quantities.forEach((productId, quantity) ->
+                (hotStockInventory.isHot(productId) ? hot : regular).put(productId, quantity));
+
+        Map<Long, Integer> reservedHot = new TreeMap<>();
+        try {
+            hot.forEach((productId, quantity) -> {
+                hotStockInventory.reserve(productId, quantity);
+                reservedHot.put(productId, quantity);
+            });
+
+            if (!regular.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> regular.forEach((productId, quantity) -> {
+                    int updated = productRepository.decreaseQuantity(productId, quantity);
+                    if (updated == 0) {
+                        throw new InsufficientStockException("Insufficient stock for product: " + productId);
+                    }
+                }));
+            }
+        } catch (RuntimeException e) {
+            reservedHot.forEach(hotStockInventory::cancelReservation);
+            throw e;
+        }
+        cancelHotOnRollback(reservedHot);
+
+        regular.keySet().forEach(productId ->
+                publishChange(productId, ProductChangedEvent.ChangeType.STOCK_CHANGED, null));
+        return true;
+    }
+
+    /**
+     * Резерв горячих товаров не входит в транзакцию БД: при откате транзакции
+     * вызывающего (например, журнала удержаний) единицы возвращаются в резерв
+     */
+    private void cancelHotOnRollback(Map<Long, Integer> reservedHot) {
+        if (reservedHot.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    reservedHot.forEach(hotStockInventory::cancelReservation);
+                }
+            }
+        });
+    }
+
+    public void releaseStockBatch(List<InventoryRequest> items) {
+        Map<Long, Integer> regular = new TreeMap<>();
+        mergeByProductId(items).forEach((productId, quantity) -> {
+            if (hotStockInventory.isHot(productId)) {
+                hotStockInventory.release(productId, quantity);
+            } else {
+                regular.put(productId, quantity);
+            }
+        });
+
+        if (!regular.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> regular.forEach(productRepository::increaseQuantity));
+            regular.keySet().forEach(productId ->
+                    publishChange(productId, ProductChangedEvent.ChangeType.STOCK_CHANGED, null));
+        }
     }
 
+    /**
+     * Неактивный товар не в наличии, как и в проверке корзины
+     */
     @Transactional(readOnly = true)
     public boolean checkStock(Long productId, Integer quantity) {
-        Product product = productRepository.findById(productId)
+        ProductStockRow row = productRepository.findStockByIdIn(List.of(productId)).stream()
+                .findFirst()
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
-        return product.getQuantity() >= quantity;
+        return Boolean.TRUE.equals(row.getActive())
+                && row.getQuantity() + hotStockInventory.localReserve(productId) >= quantity;
+    }
+
+    /**
+     * Наличие всех позиций корзины одним запросом id и остатков;
+     * позиции одного товара суммируются, отсутствующий и неактивный товар имеют остаток 0
+     */
+    @Transactional(readOnly = true)
+    public List<StockAvailability> checkStockBatch(List<InventoryRequest> items) {
+        Map<Long, Integer> requested = new LinkedHashMap<>();
+        for (InventoryRequest item : items) {
+            requested.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        Map<Long, Integer> available = new HashMap<>();
+        for (ProductStockRow row : productRepository.findStockByIdIn(requested.keySet())) {
+            if (Boolean.TRUE.equals(row.getActive())) {
+                available.put(row.getId(), Math.toIntExact(row.getQuantity() + hotStockInventory.localReserve(row.getId())));
+            }
+        }
+
+        return requested.entrySet().stream()
+                .map(entry -> {
+                    int stock = available.getOrDefault(entry.getKey(), 0);
+                    return StockAvailability.builder()
+                            .productId(entry.getKey())
+                            .requested(entry.getValue())
+                            .available(stock)
+                            .sufficient(stock >= entry.getValue())
+                            .build();
+                })
+                .toList();
+    }
+
+    private static Map<Long, Integer> mergeByProductId(List<InventoryRequest> items) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (InventoryRequest item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private void publishChange(Long productId, ProductChangedEvent.ChangeType changeType, ProductResponse product) {
+        eventPublisher.publishEvent(ProductChangedEvent.builder()
+                .productId(productId)
+                .changeType(changeType)
+                .product(product)
+                .build());
+    }
+
+    /**
+     * Совпадает с ResourceVersion.of(ProductResponse) того же товара
+     */
+    private static ResourceVersion toVersion(ProductVersionRow row) {
+        return ResourceVersion.builder()
+                .add(row.getId())
+                .add(row.getUpdatedAt())
+                .add(row.getCategoryUpdatedAt())
+                .addStock(row.getQuantity())
+                .build();
     }
 
     private ProductResponse mapToProductResponse(Product product) {
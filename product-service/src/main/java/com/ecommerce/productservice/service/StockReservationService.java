@@ -0,0 +1,133 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.InventoryRequest;
+import com.ecommerce.productservice.dto.StockHoldRequest;
+import com.ecommerce.productservice.entity.ReservationStatus;
+import com.ecommerce.productservice.entity.StockReservation;
+import com.ecommerce.productservice.event.OrderConfirmedEvent;
+import com.ecommerce.productservice.repository.StockReservationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Резервирование товаров под заказ с ограниченным сроком
+ * Каждое удержание записывается в stock_reservations с номером заказа и
+ * временем истечения; неоплаченные удержания возвращаются на склад фоновой задачей
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockReservationService {
+
+    private final StockReservationRepository reservationRepository;
+    private final ProductService productService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${products.reservations.hold-ttl:900000}")
+    private long holdTtlMillis;
+
+    /**
+     * Резервирует все позиции заказа (всё или ничего)
+     * Повторный запрос с тем же номером заказа ничего не меняет, в том числе
+     * параллельный (повтор Feign, двойная отправка): второй упирается
+     * в уникальность (заказ, товар) и ждет коммита первого
+     */
+    public boolean hold(StockHoldRequest request) {
+        if (reservationRepository.existsByOrderReference(request.getOrderReference())) {
+            return true;
+        }
+
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> holdInTransaction(request)));
+        } catch (DataIntegrityViolationException e) {
+            if (reservationRepository.existsByOrderReference(request.getOrderReference())) {
+                log.debug("Stock for order {} is already held by a concurrent request", request.getOrderReference());
+                return true;
+            }
+            throw e;
+        }
+    }
+
+    private boolean holdInTransaction(StockHoldRequest request) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        request.getItems().forEach(item -> quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+
+        LocalDateTime expiresAt = LocalDateTime.now().plus(Duration.ofMillis(holdTtlMillis));
+        List<StockReservation> reservations = quantities.entrySet().stream()
+                .map(entry -> StockReservation.builder()
+                        .orderReference(request.getOrderReference())
+                        .productId(entry.getKey())
+                        .quantity(entry.getValue())
+                        .status(ReservationStatus.HELD)
+                        .expiresAt(expiresAt)
+                        .build())
+                .toList();
+        reservationRepository.saveAllAndFlush(reservations);
+
+        // Последним шагом: при нехватке откатятся и записи журнала
+        return productService.reserveStockBatch(request.getItems());
+    }
+
+    /**
+     * Превращает удержание в продажу; false, если удержание уже истекло или снято
+     * Истекшее удержание не подтверждается и до того, как его вернет фоновая задача:
+     * его единицы вот-вот вернутся в продажу
+     */
+    @Transactional
+    public boolean confirm(String orderReference) {
+        if (reservationRepository.confirm(orderReference, LocalDateTime.now()) > 0) {
+            eventPublisher.publishEvent(new OrderConfirmedEvent(orderReference,
+                    reservationRepository.findConfirmedProductIds(orderReference)));
+            return true;
+        }
+        return reservationRepository.existsByOrderReferenceAndStatus(orderReference, ReservationStatus.CONFIRMED);
+    }
+
+    /**
+     * Возвращает на склад удержанные и проданные по заказу товары (отмена, возврат)
+     */
+    @Transactional
+    public void release(String orderReference) {
+        List<StockReservation> reservations = reservationRepository.findByOrderReferenceForUpdate(
+                orderReference, EnumSet.of(ReservationStatus.HELD, ReservationStatus.CONFIRMED));
+        returnToStock(reservations, ReservationStatus.RELEASED);
+    }
+
+    /**
+     * Возвращает на склад одну пачку истекших удержаний; возвращает их количество
+     */
+    @Transactional
+    public int releaseExpired(int batchSize) {
+        List<StockReservation> expired = reservationRepository.findExpiredForUpdate(
+                LocalDateTime.now(), Limit.of(batchSize));
+        returnToStock(expired, ReservationStatus.EXPIRED);
+        return expired.size();
+    }
+
+    private void returnToStock(List<StockReservation> reservations, ReservationStatus status) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+
+        reservationRepository.updateStatus(
+                reservations.stream().map(StockReservation::getId).toList(), status);
+        productService.releaseStockBatch(reservations.stream()
+                .map(reservation -> new InventoryRequest(reservation.getProductId(), reservation.getQuantity()))
+                .toList());
+    }
+}
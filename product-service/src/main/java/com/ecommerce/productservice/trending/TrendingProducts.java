@@ -0,0 +1,151 @@
+package com.ecommerce.productservice.trending;
+
+import com.ecommerce.productservice.event.ProductChangedEvent;
+import com.ecommerce.productservice.repository.ProductViewStatsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Популярные сейчас товары по просмотрам карточки
+ * Просмотр - инкремент LongAdder (ячейки добавляются только при конкуренции потоков,
+ * поэтому редкие товары не занимают полосы). Раз в окно (products.trending.window)
+ * счетчики снимаются, старый счет затухает с периодом полураспада half-life,
+ * в памяти остаются max-tracked лидеров, а снятые просмотры пачкой пишутся в БД.
+ * Счет локален для экземпляра сервиса и не восстанавливается после перезапуска
+ */
+@Component
+@Slf4j
+public class TrendingProducts {
+
+    public static final int MAX_LIMIT = 50;
+
+    /**
+     * Счет ниже полпросмотра не влияет на топ
+     */
+    private static final double MIN_SCORE = 0.5;
+
+    private final ProductViewStatsRepository viewStatsRepository;
+    private final double decayPerWindow;
+    private final int maxTracked;
+
+    private final Map<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+
+    /**
+     * Затухающий счет и просмотры, еще не записанные в БД; изменяются под блокировкой объекта
+     */
+    private final Map<Long, Double> scores = new HashMap<>();
+    private final Map<Long, Long> unflushedViews = new HashMap<>();
+
+    /**
+     * Id лидеров по убыванию счета, неизменяемый список
+     */
+    private volatile List<Long> top = List.of();
+
+    public TrendingProducts(ProductViewStatsRepository viewStatsRepository,
+                            @Value("${products.trending.window:60000}") long windowMillis,
+                            @Value("${products.trending.half-life:3600000}") long halfLifeMillis,
+                            @Value("${products.trending.max-tracked:10000}") int maxTracked) {
+        this.viewStatsRepository = viewStatsRepository;
+        this.decayPerWindow = Math.pow(0.5, (double) windowMillis / halfLifeMillis);
+        this.maxTracked = Math.max(maxTracked, MAX_LIMIT);
+    }
+
+    public void recordView(Long productId) {
+        LongAdder views = pendingViews.get(productId);
+        if (views == null) {
+            views = pendingViews.computeIfAbsent(productId, key -> new LongAdder());
+        }
+        views.increment();
+    }
+
+    /**
+     * До limit лидеров без обращения к БД
+     */
+    public List<Long> top(int limit) {
+        List<Long> current = top;
+        return current.subList(0, Math.min(limit, current.size()));
+    }
+
+    @Scheduled(initialDelayString = "${products.trending.window:60000}",
+            fixedDelayString = "${products.trending.window:60000}")
+    public void rollWindow() {
+        Map<Long, Long> views = drainPendingViews();
+
+        Map<Long, Long> toFlush;
+        synchronized (this) {
+            scores.replaceAll((id, score) -> score * decayPerWindow);
+            views.forEach((id, count) -> scores.merge(id, (double) count, Double::sum));
+            scores.values().removeIf(score -> score < MIN_SCORE);
+            top = rank();
+
+            views.forEach((id, count) -> unflushedViews.merge(id, count, Long::sum));
+            toFlush = Map.copyOf(unflushedViews);
+        }
+
+        if (toFlush.isEmpty()) {
+            return;
+        }
+        try {
+            viewStatsRepository.addViews(toFlush, LocalDateTime.now());
+            synchronized (this) {
+                toFlush.forEach((id, count) -> unflushedViews.computeIfPresent(id,
+                        (key, pending) -> pending > count ? pending - count : null));
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to flush product views, will retry: products={}", toFlush.size(), e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        boolean removed = event.getChangeType() == ProductChangedEvent.ChangeType.DELETED
+                || (event.getProduct() != null && !event.getProduct().isActive());
+        if (removed && scores.remove(event.getProductId()) != null) {
+            top = rank();
+        }
+    }
+
+    private Map<Long, Long> drainPendingViews() {
+        Map<Long, Long> views = new HashMap<>();
+        for (Map.Entry<Long, LongAdder> entry : pendingViews.entrySet()) {
+            long count = entry.getValue().sumThenReset();
+            if (count > 0) {
+                views.put(entry.getKey(), count);
+            } else {
+                // Товар не просматривали целое окно - счетчик больше не нужен
+                pendingViews.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        return views;
+    }
+
+    /**
+     * Оставляет max-tracked товаров с наибольшим счетом и возвращает первые MAX_LIMIT
+     */
+    private List<Long> rank() {
+        List<Long> ranked = scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+        if (ranked.size() > maxTracked) {
+            Set<Long> kept = new HashSet<>(ranked.subList(0, maxTracked));
+            scores.keySet().retainAll(kept);
+        }
+        return List.copyOf(ranked.subList(0, Math.min(MAX_LIMIT, ranked.size())));
+    }
+}
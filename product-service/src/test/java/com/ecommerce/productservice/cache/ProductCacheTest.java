@@ -0,0 +1,85 @@
+package com.ecommerce.productservice.cache;
+
+import com.ecommerce.productservice.dto.ProductResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCacheTest {
+
+    private final ProductCache cache = new ProductCache(new SimpleMeterRegistry(), 100, 60_000);
+
+    @Test
+    void getAll_MixedCachedAndMissing_KeepsRequestOrder() {
+        cache.get(2L, ProductCacheTest::product);
+
+        List<ProductResponse> products = cache.getAll(List.of(2L, -1L, 1L, 2L), ProductCacheTest::existing);
+
+        assertEquals(List.of(2L, 1L), products.stream().map(ProductResponse::getId).toList());
+        assertNotNull(cache.getIfPresent(1L));
+    }
+
+    @Test
+    void getBySku_ChangedDuringLoad_NotCached() {
+        ProductResponse stale = product(1L);
+
+        // Изменение коммитится, пока загрузчик держит прочитанную до него версию
+        ProductResponse loaded = cache.getBySku("SKU-1", () -> {
+            cache.evict(1L);
+            return stale;
+        });
+
+        assertSame(stale, loaded);
+        assertNull(cache.getIfPresentBySku("SKU-1"));
+        assertNull(cache.getIfPresent(1L));
+    }
+
+    @Test
+    void getAll_ChangedDuringLoad_LoadedNotCached() {
+        cache.get(1L, ProductCacheTest::product);
+
+        List<ProductResponse> products = cache.getAll(List.of(1L, 2L, 3L), missing -> {
+            cache.evict(3L);
+            return existing(missing);
+        });
+
+        assertEquals(3, products.size());
+        // Уже лежавший в кеше товар не загружался и остается
+        assertNotNull(cache.getIfPresent(1L));
+        assertNull(cache.getIfPresent(2L));
+        assertNull(cache.getIfPresent(3L));
+    }
+
+    @Test
+    void evict_RemovesSkuMapping() {
+        cache.getBySku("SKU-4", () -> product(4L));
+        assertNotNull(cache.getIfPresentBySku("SKU-4"));
+
+        cache.evict(4L);
+
+        assertNull(cache.getIfPresentBySku("SKU-4"));
+        assertSame(cache.getBySku("SKU-4", () -> product(4L)), cache.getIfPresent(4L));
+    }
+
+    private static Map<Long, ProductResponse> existing(Set<Long> ids) {
+        return ids.stream()
+                .filter(id -> id > 0)
+                .collect(Collectors.toMap(Function.identity(), ProductCacheTest::product));
+    }
+
+    private static ProductResponse product(Long id) {
+        return ProductResponse.builder()
+                .id(id)
+                .name("Product " + id)
+                .sku("SKU-" + id)
+                .active(true)
+                .build();
+    }
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.productservice.config;
+
+import com.ecommerce.productservice.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replicaconfig",
+        "spring.datasource.replica.url=jdbc:h2:mem:replicaconfig",
+        "spring.datasource.replica.sticky-window=0s"
+})
+class ReadReplicaDataSourceConfigTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void readOnlyServiceMethods_UseReplicaPool() {
+        assertInstanceOf(ReplicaRoutingDataSource.class, dataSource);
+        double before = meterRegistry.get("datasource.routing.connections").tag("pool", "replica").counter().count();
+
+        productService.listProducts(null, "id", "asc", null, 10, false);
+
+        assertTrue(meterRegistry.get("datasource.routing.connections").tag("pool", "replica").counter().count() > before);
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "replica").gauge());
+    }
+}
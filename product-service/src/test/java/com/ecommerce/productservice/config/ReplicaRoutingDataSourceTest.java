@@ -0,0 +1,131 @@
+package com.ecommerce.productservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = database("routing_primary");
+    private final DataSource replica = database("routing_replica");
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        for (DataSource dataSource : new DataSource[]{primary, replica}) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("DROP TABLE IF EXISTS node");
+            jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20))");
+            jdbcTemplate.update("INSERT INTO node VALUES (?)", dataSource == primary ? "primary" : "replica");
+        }
+    }
+
+    @Test
+    void readOnlyTransactions_UseReplica_WritesUsePrimary() {
+        ReplicaRoutingDataSource dataSource = router(replica);
+
+        assertEquals("replica", read(dataSource));
+        assertEquals("primary", write(dataSource));
+        assertEquals(1, count("datasource.routing.connections", "pool", "replica"));
+    }
+
+    @Test
+    void readAfterWrite_StaysOnPrimaryForSameClient() throws Exception {
+        ReplicaRoutingDataSource dataSource = router(replica);
+
+        dataSource.bindClient("42");
+        write(dataSource);
+        assertEquals("primary", read(dataSource));
+        dataSource.unbindClient();
+
+        // Другой поток: тот же пользователь читает с основной БД, другой - с реплики
+        assertEquals("primary", CompletableFuture.supplyAsync(() -> readAs(dataSource, "42")).get());
+        assertEquals("replica", CompletableFuture.supplyAsync(() -> readAs(dataSource, "7")).get());
+        assertEquals(2, count("datasource.routing.primary.reads", "reason", "sticky"));
+    }
+
+    @Test
+    void stickinessFilter_ClearsThreadStateAfterRequest() throws Exception {
+        ReplicaRoutingDataSource dataSource = router(replica);
+        ReplicaStickinessFilter filter = new ReplicaStickinessFilter(dataSource);
+
+        // Запрос без X-User-Id читает свою запись с основной БД
+        String[] readInRequest = new String[1];
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (request, response) -> {
+            write(dataSource);
+            readInRequest[0] = read(dataSource);
+        });
+        assertEquals("primary", readInRequest[0]);
+
+        // Следующий запрос в том же потоке пула не наследует привязку
+        assertEquals("replica", read(dataSource));
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(ReplicaStickinessFilter.USER_ID_HEADER, "42");
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> write(dataSource));
+        assertEquals("replica", read(dataSource));
+        assertEquals("primary", readAs(dataSource, "42"));
+    }
+
+    @Test
+    void unavailableReplica_FallsBackToPrimary() {
+        ReplicaRoutingDataSource dataSource = router(new DriverManagerDataSource("jdbc:h2:mem:missing;IFEXISTS=TRUE", "sa", ""));
+
+        assertEquals("primary", read(dataSource));
+        assertEquals("primary", read(dataSource));
+        assertEquals(2, count("datasource.routing.primary.reads", "reason", "fallback"));
+    }
+
+    private ReplicaRoutingDataSource router(DataSource replicaDataSource) {
+        return ReplicaRoutingDataSource.create(primary, replicaDataSource,
+                Duration.ofMinutes(1), Duration.ofMinutes(1), meterRegistry);
+    }
+
+    private String readAs(ReplicaRoutingDataSource dataSource, String client) {
+        dataSource.bindClient(client);
+        try {
+            return read(dataSource);
+        } finally {
+            dataSource.unbindClient();
+        }
+    }
+
+    private static String read(DataSource dataSource) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> node(dataSource));
+    }
+
+    private static String write(DataSource dataSource) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        return transaction.execute(status -> {
+            new JdbcTemplate(dataSource).update("UPDATE node SET name = name");
+            return node(dataSource);
+        });
+    }
+
+    private static String node(DataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private double count(String name, String tag, String value) {
+        return meterRegistry.get(name).tag(tag, value).counter().count();
+    }
+
+    private static DataSource database(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
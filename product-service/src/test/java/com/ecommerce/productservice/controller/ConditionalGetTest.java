@@ -0,0 +1,105 @@
+package com.ecommerce.productservice.controller;
+
+import com.ecommerce.productservice.cache.ProductCache;
+import com.ecommerce.productservice.dto.CreateCategoryRequest;
+import com.ecommerce.productservice.dto.CreateProductRequest;
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.service.CategoryService;
+import com.ecommerce.productservice.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ConditionalGetTest {
+
+    @Autowired
+    private ProductController productController;
+
+    @Autowired
+    private CategoryController categoryController;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductCache productCache;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(productController, categoryController).build();
+    }
+
+    @Test
+    void getProduct_MatchingETag_NotModifiedUntilStockChanges() throws Exception {
+        ProductResponse product = productService.createProduct(CreateProductRequest.builder()
+                .name("Conditional Kettle")
+                .price(new BigDecimal("30.00"))
+                .quantity(5)
+                .sku("COND-1")
+                .build());
+        String url = "/api/products/" + product.getId();
+
+        String eTag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                // Остаток не сдвигает updatedAt, поэтому у товара только ETag
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // Без кеша версия читается запросом только updatedAt и остатка и совпадает с версией ответа
+        productCache.evict(product.getId());
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/products/sku/COND-1").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        assertTrue(productService.reserveStock(product.getId(), 1));
+        String changed = mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity").value(4))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, changed);
+        assertEquals(product.getUpdatedAt(), productService.getProductById(product.getId()).getUpdatedAt());
+    }
+
+    @Test
+    void listings_UseCollectionValidator() throws Exception {
+        String page = mockMvc.perform(get("/api/products").param("size", "5"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/products").param("size", "5").header(HttpHeaders.IF_NONE_MATCH, page))
+                .andExpect(status().isNotModified());
+
+        String categories = mockMvc.perform(get("/api/categories/root"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/categories").header(HttpHeaders.IF_NONE_MATCH, categories))
+                .andExpect(status().isNotModified());
+
+        categoryService.createCategory(CreateCategoryRequest.builder().name("Conditional Category").build());
+        mockMvc.perform(get("/api/categories/root").header(HttpHeaders.IF_NONE_MATCH, categories))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,36 @@
+package com.ecommerce.productservice.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductContentHashTest {
+
+    private static final long HAMMER = ProductContentHash.of("Hammer", "Steel", new BigDecimal("10.00"), 1L, "h.png");
+
+    @Test
+    void of_SamePriceDifferentScale_SameHash() {
+        assertEquals(HAMMER, ProductContentHash.of("Hammer", "Steel", new BigDecimal("10"), 1L, "h.png"));
+        assertEquals(HAMMER, ProductContentHash.of("Hammer", "Steel", new BigDecimal("1E+1"), 1L, "h.png"));
+    }
+
+    @Test
+    void of_AnyCatalogFieldChanged_DifferentHash() {
+        assertNotEquals(HAMMER, ProductContentHash.of("Hammer!", "Steel", new BigDecimal("10.00"), 1L, "h.png"));
+        assertNotEquals(HAMMER, ProductContentHash.of("Hammer", "Iron", new BigDecimal("10.00"), 1L, "h.png"));
+        assertNotEquals(HAMMER, ProductContentHash.of("Hammer", "Steel", new BigDecimal("10.01"), 1L, "h.png"));
+        assertNotEquals(HAMMER, ProductContentHash.of("Hammer", "Steel", new BigDecimal("10.00"), 2L, "h.png"));
+        assertNotEquals(HAMMER, ProductContentHash.of("Hammer", "Steel", new BigDecimal("10.00"), 1L, null));
+    }
+
+    @Test
+    void of_FieldBoundariesAndNulls_Distinguished() {
+        // Значения не склеиваются: перенос символа между полями меняет хеш
+        assertNotEquals(ProductContentHash.of("ab", "c", null, null, null),
+                ProductContentHash.of("a", "bc", null, null, null));
+        assertNotEquals(ProductContentHash.of("Hammer", null, null, null, null),
+                ProductContentHash.of("Hammer", "", null, null, null));
+    }
+}
@@ -0,0 +1,80 @@
+package com.ecommerce.productservice.importer;
+
+import com.ecommerce.productservice.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvProductImportReaderTest {
+
+    @Test
+    void next_QuotedFields_KeepCommasQuotesAndLineBreaks() throws IOException {
+        List<ImportRow> rows = read("""
+                sku,name,description,price,quantity
+                CSV-1,"Table, oak","Solid ""oak""
+                top",120.00,2
+                CSV-2,Stool,,15.5,9
+                """);
+
+        assertEquals(2, rows.size());
+        ImportRow table = rows.get(0);
+        assertEquals(2, table.line());
+        assertEquals("Table, oak", table.request().getName());
+        assertEquals("Solid \"oak\"\ntop", table.request().getDescription());
+        assertEquals(0, new BigDecimal("120.00").compareTo(table.request().getPrice()));
+        // Номер строки учитывает перевод строки внутри кавычек
+        assertEquals(4, rows.get(1).line());
+        assertNull(rows.get(1).request().getDescription());
+    }
+
+    @Test
+    void next_BadRows_ReportedWithLineNumbers() throws IOException {
+        List<ImportRow> rows = read("""
+                sku,name,price,quantity
+                CSV-3,Chair,abc,4
+                CSV-4,Shelf,30
+
+                CSV-5,"Lamp,10,1
+                """);
+
+        assertEquals(3, rows.size());
+        assertTrue(rows.get(0).isFailed());
+        assertTrue(rows.get(0).error().contains("price"));
+        assertEquals(3, rows.get(1).line());
+        assertTrue(rows.get(1).error().contains("Expected 4 columns"));
+        // Пустая строка пропускается, незакрытая кавычка поглощает остаток файла
+        assertEquals(5, rows.get(2).line());
+        assertEquals("Unterminated quoted field", rows.get(2).error());
+    }
+
+    @Test
+    void next_HeaderWithBomAndSnakeCase_Recognized() throws IOException {
+        List<ImportRow> rows = read("\uFEFFsku,Name,category_id,image_url\nCSV-6,Desk,7,http://img/desk.png\n");
+
+        assertEquals(1, rows.size());
+        assertEquals("CSV-6", rows.getFirst().request().getSku());
+        assertEquals(7L, rows.getFirst().request().getCategoryId());
+        assertEquals("http://img/desk.png", rows.getFirst().request().getImageUrl());
+    }
+
+    @Test
+    void next_UnknownColumn_Rejected() {
+        assertThrows(BadRequestException.class, () -> read("sku,title\nCSV-7,Thing\n"));
+    }
+
+    private static List<ImportRow> read(String body) throws IOException {
+        CsvProductImportReader reader = new CsvProductImportReader(new BufferedReader(new StringReader(body)));
+        List<ImportRow> rows = new ArrayList<>();
+        for (ImportRow row = reader.next(); row != null; row = reader.next()) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,160 @@
+package com.ecommerce.productservice.inventory;
+
+import com.ecommerce.productservice.dto.CreateProductRequest;
+import com.ecommerce.productservice.dto.InventoryRequest;
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.dto.StockHoldRequest;
+import com.ecommerce.productservice.exception.InsufficientStockException;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.service.ProductService;
+import com.ecommerce.productservice.service.StockReservationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "products.inventory.hot.enabled=true",
+        "products.inventory.hot.stripes=4",
+        "products.inventory.hot.claim-size=10",
+        "products.inventory.hot.journal-file=build/tmp/hot-stock-test.journal"
+})
+@ActiveProfiles("test")
+class HotStockInventoryTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private HotStockInventory hotStockInventory;
+
+    @Autowired
+    private StockReservationService reservationService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void reserveStock_ConcurrentHotReservations_SellExactlyAvailableStock() throws Exception {
+        ProductResponse product = create("HOT-1", 95);
+        hotStockInventory.enable(product.getId());
+        AtomicInteger reserved = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 20; j++) {
+                        try {
+                            productService.reserveStock(product.getId(), 1);
+                            reserved.incrementAndGet();
+                        } catch (InsufficientStockException ignored) {
+                            // распродано
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(95, reserved.get());
+        assertEquals(0, databaseQuantity(product.getId()) + hotStockInventory.localReserve(product.getId()));
+        hotStockInventory.disable(product.getId());
+    }
+
+    @Test
+    void disable_ReturnsLocalReserveToDatabase() {
+        ProductResponse product = create("HOT-2", 25);
+        hotStockInventory.enable(product.getId());
+
+        productService.reserveStock(product.getId(), 3);
+        assertEquals(15, databaseQuantity(product.getId()));
+        assertEquals(7, hotStockInventory.localReserve(product.getId()));
+        assertTrue(productService.checkStock(product.getId(), 22));
+
+        productService.releaseStockBatch(List.of(new InventoryRequest(product.getId(), 1)));
+        hotStockInventory.disable(product.getId());
+
+        assertEquals(23, databaseQuantity(product.getId()));
+        assertFalse(hotStockInventory.isHot(product.getId()));
+    }
+
+    @Test
+    void reserveStockBatch_RegularLineShort_ReturnsHotReservation() {
+        ProductResponse hot = create("HOT-3", 10);
+        ProductResponse regular = create("HOT-4", 1);
+        hotStockInventory.enable(hot.getId());
+
+        assertThrows(InsufficientStockException.class, () -> productService.reserveStockBatch(List.of(
+                new InventoryRequest(hot.getId(), 4),
+                new InventoryRequest(regular.getId(), 2))));
+
+        assertEquals(10, databaseQuantity(hot.getId()) + hotStockInventory.localReserve(hot.getId()));
+        assertEquals(1, databaseQuantity(regular.getId()));
+        hotStockInventory.disable(hot.getId());
+    }
+
+    @Test
+    void hold_RegularLineShort_KeepsClaimedStockConsistent() {
+        ProductResponse hot = create("HOT-5", 10);
+        ProductResponse regular = create("HOT-6", 1);
+        hotStockInventory.enable(hot.getId());
+
+        assertThrows(InsufficientStockException.class, () -> reservationService.hold(StockHoldRequest.builder()
+                .orderReference("ORD-HOT-5")
+                .items(List.of(new InventoryRequest(hot.getId(), 4), new InventoryRequest(regular.getId(), 2)))
+                .build()));
+
+        // Порция забрана в отдельной транзакции и не возвращается в БД откатом удержания
+        assertEquals(0, databaseQuantity(hot.getId()));
+        assertEquals(10, hotStockInventory.localReserve(hot.getId()));
+        hotStockInventory.disable(hot.getId());
+        assertEquals(10, databaseQuantity(hot.getId()));
+    }
+
+    @Test
+    void reserveStockBatch_OuterTransactionRolledBack_ReturnsHotReservation() {
+        ProductResponse hot = create("HOT-7", 10);
+        hotStockInventory.enable(hot.getId());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            productService.reserveStockBatch(List.of(new InventoryRequest(hot.getId(), 4)));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(10, databaseQuantity(hot.getId()) + hotStockInventory.localReserve(hot.getId()));
+        hotStockInventory.disable(hot.getId());
+    }
+
+    private int databaseQuantity(Long productId) {
+        return productRepository.findById(productId).orElseThrow().getQuantity();
+    }
+
+    private ProductResponse create(String sku, int quantity) {
+        return productService.createProduct(CreateProductRequest.builder()
+                .name("Hot product " + sku)
+                .price(new BigDecimal("1.00"))
+                .quantity(quantity)
+                .sku(sku)
+                .build());
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecommerce.productservice.inventory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventoryJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recover_AfterUncleanStop_ReturnsUnsoldReserve() throws Exception {
+        Path file = directory.resolve("inventory.journal");
+
+        InventoryJournal journal = new InventoryJournal(file, 16);
+        journal.start();
+        journal.append(InventoryJournal.Operation.CLAIM, 1L, 100);
+        journal.append(InventoryJournal.Operation.RESERVE, 1L, 30);
+        journal.append(InventoryJournal.Operation.RELEASE, 1L, 5);
+        journal.append(InventoryJournal.Operation.CLAIM, 2L, 10);
+        journal.append(InventoryJournal.Operation.RETURN, 2L, 10);
+        // Закрываем без delete, как при аварийной остановке
+        journal.close();
+
+        Map<Long, Long> balances = new InventoryJournal(file, 16).recover();
+
+        assertEquals(Map.of(1L, 75L), balances);
+    }
+
+    @Test
+    void recover_AfterReturnRecorded_DoesNotReturnTwice() throws Exception {
+        Path file = directory.resolve("inventory.journal");
+
+        InventoryJournal journal = new InventoryJournal(file, 16);
+        journal.start();
+        journal.append(InventoryJournal.Operation.CLAIM, 1L, 40);
+        journal.close();
+        // Неполная запись в конце, как при сбое во время записи
+        Files.write(file, new byte[]{0, 0, 0}, StandardOpenOption.APPEND);
+
+        InventoryJournal restarted = new InventoryJournal(file, 16);
+        Map<Long, Long> balances = restarted.recover();
+        restarted.start();
+        balances.forEach((productId, amount) ->
+                restarted.append(InventoryJournal.Operation.RETURN, productId, amount));
+        // Сбой после записи RETURN, до возврата в БД
+        restarted.close();
+
+        assertEquals(Map.of(1L, 40L), balances);
+        assertEquals(Map.of(), new InventoryJournal(file, 16).recover());
+    }
+
+    @Test
+    void append_AfterExchangeWithDatabase_CompactsJournal() throws Exception {
+        Path file = directory.resolve("inventory.journal");
+
+        InventoryJournal journal = new InventoryJournal(file, 16);
+        journal.start();
+        journal.append(InventoryJournal.Operation.CLAIM, 1L, 100);
+        for (int i = 0; i < 50; i++) {
+            journal.append(InventoryJournal.Operation.RESERVE, 1L, 1);
+        }
+        journal.append(InventoryJournal.Operation.CLAIM, 2L, 10);
+        journal.append(InventoryJournal.Operation.RETURN, 2L, 10);
+        journal.close();
+
+        // После RETURN в журнале только снимок: одна запись CLAIM на товар с резервом
+        assertEquals(1 + Long.BYTES + Long.BYTES, Files.size(file));
+        assertEquals(Map.of(1L, 50L), new InventoryJournal(file, 16).recover());
+    }
+
+    @Test
+    void append_AfterClose_Fails() throws Exception {
+        InventoryJournal journal = new InventoryJournal(directory.resolve("inventory.journal"), 16);
+        journal.start();
+        journal.close();
+
+        assertThrows(UncheckedIOException.class,
+                () -> journal.append(InventoryJournal.Operation.RESERVE, 1L, 1));
+    }
+}
@@ -0,0 +1,60 @@
+package com.ecommerce.productservice.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedCounterTest {
+
+    @Test
+    void tryTake_ConcurrentThreads_NeverOversells() throws Exception {
+        StripedCounter counter = new StripedCounter(8);
+        counter.add(10_000);
+        AtomicInteger taken = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(() -> {
+                    while (counter.tryTake(3)) {
+                        taken.addAndGet(3);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(9_999, taken.get());
+        assertEquals(1, counter.sum());
+    }
+
+    @Test
+    void tryTake_SpreadAcrossStripes_CollectsFromSeveral() throws Exception {
+        StripedCounter counter = new StripedCounter(4);
+        // Пополняем полосы из разных потоков
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> counter.add(5));
+            thread.start();
+            thread.join();
+        }
+
+        assertTrue(counter.tryTake(12));
+        assertEquals(8, counter.sum());
+        assertFalse(counter.tryTake(9));
+        assertEquals(8, counter.sum());
+        assertEquals(8, counter.drain());
+        assertEquals(0, counter.sum());
+    }
+}
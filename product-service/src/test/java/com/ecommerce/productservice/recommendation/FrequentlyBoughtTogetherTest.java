@@ -0,0 +1,69 @@
+package com.ecommerce.productservice.recommendation;
+
+import com.ecommerce.productservice.event.ProductChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrequentlyBoughtTogetherTest {
+
+    private final FrequentlyBoughtTogether recommendations = new FrequentlyBoughtTogether(1000, 20, 2_592_000_000L);
+
+    @Test
+    void related_RankedByOrdersTogether() {
+        recommendations.recordOrder(List.of(1L, 2L, 3L));
+        recommendations.recordOrder(List.of(1L, 2L));
+        recommendations.recordOrder(List.of(4L, 3L));
+
+        assertEquals(List.of(2L, 3L), recommendations.related(1L, 10));
+        assertEquals(List.of(2L), recommendations.related(1L, 1));
+        assertEquals(Set.of(1L, 2L, 4L), Set.copyOf(recommendations.related(3L, 10)));
+        assertEquals(List.of(), recommendations.related(5L, 10));
+    }
+
+    @Test
+    void recordOrder_DuplicatesAndSingleItemBasketsIgnored() {
+        recommendations.recordOrder(Arrays.asList(1L, 1L, null, 2L));
+        recommendations.recordOrder(List.of(3L));
+
+        assertEquals(List.of(2L), recommendations.related(1L, 10));
+        assertEquals(List.of(1L), recommendations.related(2L, 10));
+        assertEquals(List.of(), recommendations.related(3L, 10));
+    }
+
+    @Test
+    void recordOrder_FullList_NewNeighbourReplacesWeakest() {
+        for (int i = 0; i < 3; i++) {
+            recommendations.recordOrder(List.of(1L, 2L));
+        }
+        List<Long> basket = new ArrayList<>(List.of(1L));
+        LongStream.rangeClosed(3, 21).forEach(basket::add);
+        recommendations.recordOrder(basket);
+
+        recommendations.recordOrder(List.of(1L, 100L));
+
+        List<Long> related = recommendations.related(1L, 20);
+        assertEquals(20, related.size());
+        assertEquals(2L, related.getFirst());
+        // Новый сосед унаследовал вес вытесненного и опережает остальных
+        assertEquals(100L, related.get(1));
+    }
+
+    @Test
+    void onProductChanged_Deleted_ForgetsNeighbours() {
+        recommendations.recordOrder(List.of(1L, 2L));
+
+        recommendations.onProductChanged(ProductChangedEvent.builder()
+                .productId(1L)
+                .changeType(ProductChangedEvent.ChangeType.DELETED)
+                .build());
+
+        assertEquals(List.of(), recommendations.related(1L, 10));
+    }
+}
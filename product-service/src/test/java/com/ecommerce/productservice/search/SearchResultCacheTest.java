@@ -0,0 +1,66 @@
+package com.ecommerce.productservice.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchResultCacheTest {
+
+    private final SearchResultCache cache = new SearchResultCache(new SimpleMeterRegistry(), 100, 60_000);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void get_NormalizedQuery_SharesEntry() {
+        load("Quokka shelf");
+        load("shelf  QUOKKA");
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidate_ExactPrefixAndTypoTerms_DropMatchingEntries() {
+        load("quokka");
+        load("wombat");
+
+        cache.invalidate(List.of("kangaroo"));
+        load("quokka");
+        assertEquals(2, loads.get());
+
+        // Терм товара длиннее терма запроса: совпадение по префиксу
+        cache.invalidate(List.of("quokkas"));
+        load("quokka");
+        assertEquals(3, loads.get());
+
+        // Одна опечатка
+        cache.invalidate(List.of("quoka"));
+        load("quokka");
+        assertEquals(4, loads.get());
+
+        load("wombat");
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void get_ProductChangedDuringLoad_ResultNotCached() {
+        cache.get("quokka", 0, 10, () -> {
+            loads.incrementAndGet();
+            cache.invalidate(List.of("wombat"));
+            return new ProductSearchIndex.SearchHits(List.of(), 0);
+        });
+        load("quokka");
+
+        assertEquals(2, loads.get());
+    }
+
+    private void load(String query) {
+        cache.get(query, 0, 10, () -> {
+            loads.incrementAndGet();
+            return new ProductSearchIndex.SearchHits(List.of(1L), 1);
+        });
+    }
+}
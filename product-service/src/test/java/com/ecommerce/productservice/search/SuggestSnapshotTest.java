@@ -0,0 +1,42 @@
+package com.ecommerce.productservice.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestSnapshotTest {
+
+    private final SuggestSnapshot snapshot = SuggestSnapshot.build(List.of(
+            new SuggestSnapshot.Document(1, "Professional Drill", "PD-100", 5),
+            new SuggestSnapshot.Document(2, "Pro Saw", "PS-200", 5),
+            new SuggestSnapshot.Document(3, "Cordless Drill Pro", "CD-300", 9),
+            new SuggestSnapshot.Document(4, "Hammer", "HM-400", 0)));
+
+    @Test
+    void suggest_AnyWordPrefixAndSku_RankedByWeightThenNameLength() {
+        assertEquals(List.of(3L, 2L, 1L), ids(snapshot.suggest("pro", 10)));
+        assertEquals(List.of(3L, 1L), ids(snapshot.suggest("drill", 10)));
+        assertEquals(List.of(4L), ids(snapshot.suggest("hm-4", 10)));
+        assertEquals(List.of(3L), ids(snapshot.suggest("pro", 1)));
+    }
+
+    @Test
+    void suggest_ShortAndLongPrefixesAgree() {
+        // До 3 символов ответ заранее посчитан, дальше ищется по массиву ключей
+        assertEquals(ids(snapshot.suggest("dri", 10)), ids(snapshot.suggest("drill", 10)));
+        assertEquals(List.of(1L), ids(snapshot.suggest("profe", 10)));
+    }
+
+    @Test
+    void suggest_TrailingSpaceRequiresWholeWord() {
+        assertEquals(List.of(2L), ids(snapshot.suggest("pro ", 10)));
+        assertEquals(List.of(), snapshot.suggest("  ", 10));
+        assertEquals(List.of(), SuggestSnapshot.EMPTY.suggest("pro", 10));
+    }
+
+    private static List<Long> ids(List<SuggestSnapshot.Document> documents) {
+        return documents.stream().map(SuggestSnapshot.Document::id).toList();
+    }
+}
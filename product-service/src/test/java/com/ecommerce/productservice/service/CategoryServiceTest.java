@@ -0,0 +1,52 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.CategoryResponse;
+import com.ecommerce.productservice.dto.CreateCategoryRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryServiceTest extends ProductServiceTestSupport {
+
+    @Test
+    void getRootCategories_ReturnsWholeActiveTree() {
+        CategoryResponse root = category("Tree Root", null);
+        CategoryResponse child = category("Tree Child", root.getId());
+        CategoryResponse grandchild = category("Tree Grandchild", child.getId());
+
+        CategoryResponse treeRoot = findRoot(root.getId());
+        assertEquals(1, treeRoot.getChildren().size());
+        CategoryResponse treeChild = treeRoot.getChildren().getFirst();
+        assertEquals(child.getId(), treeChild.getId());
+        assertEquals(grandchild.getId(), treeChild.getChildren().getFirst().getId());
+        assertTrue(treeChild.getChildren().getFirst().getChildren().isEmpty());
+    }
+
+    @Test
+    void writes_AreVisibleInSnapshot() {
+        CategoryResponse root = category("Snapshot Root", null);
+        CategoryResponse child = category("Snapshot Child", root.getId());
+
+        categoryService.updateCategory(child.getId(), CreateCategoryRequest.builder()
+                .name("Snapshot Child Renamed")
+                .parentId(root.getId())
+                .build());
+        assertEquals("Snapshot Child Renamed", categoryService.getCategoryById(child.getId()).getName());
+        assertEquals("Snapshot Child Renamed", findRoot(root.getId()).getChildren().getFirst().getName());
+
+        categoryService.deleteCategory(child.getId());
+        assertTrue(findRoot(root.getId()).getChildren().isEmpty());
+        assertTrue(categoryService.getChildCategories(root.getId()).isEmpty());
+        assertFalse(categoryService.getCategoryById(child.getId()).isActive());
+    }
+
+    private CategoryResponse findRoot(Long id) {
+        List<CategoryResponse> roots = categoryService.getRootCategories();
+        return roots.stream()
+                .filter(category -> category.getId().equals(id))
+                .findFirst()
+                .orElseThrow();
+    }
+}
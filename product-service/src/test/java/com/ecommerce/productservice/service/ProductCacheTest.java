@@ -0,0 +1,64 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.dto.UpdateProductRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCacheTest extends ProductServiceTestSupport {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void getProductById_RepeatedCalls_ServedFromCache() {
+        ProductResponse created = create("CACHE-1", 10);
+        double hitsBefore = hits();
+
+        ProductResponse first = productService.getProductById(created.getId());
+        ProductResponse second = productService.getProductById(created.getId());
+
+        assertSame(first, second);
+        assertTrue(hits() > hitsBefore);
+    }
+
+    @Test
+    void getProductById_AfterStockAndUpdate_ReturnsFreshData() {
+        ProductResponse created = create("CACHE-2", 10);
+        productService.getProductById(created.getId());
+
+        productService.reserveStock(created.getId(), 3);
+        assertEquals(7, productService.getProductById(created.getId()).getQuantity());
+
+        productService.releaseStock(created.getId(), 1);
+        assertEquals(8, productService.getProductBySku("CACHE-2").getQuantity());
+
+        productService.updateProduct(created.getId(), UpdateProductRequest.builder().name("Renamed").build());
+        assertEquals("Renamed", productService.getProductById(created.getId()).getName());
+    }
+
+    @Test
+    void getProductsByIds_MixedCachedAndMissing_KeepsRequestOrder() {
+        ProductResponse first = create("CACHE-3", 1);
+        ProductResponse second = create("CACHE-4", 1);
+        productService.getProductById(second.getId());
+
+        List<ProductResponse> products = productService.getProductsByIds(
+                List.of(second.getId(), -1L, first.getId(), second.getId()));
+
+        assertEquals(List.of(second.getId(), first.getId()), ids(products));
+    }
+
+    private double hits() {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", "products.by-id")
+                .tag("result", "hit")
+                .functionCounter()
+                .count();
+    }
+}
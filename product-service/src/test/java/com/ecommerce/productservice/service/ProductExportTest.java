@@ -0,0 +1,70 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.dto.UpdateProductRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductExportTest extends ProductServiceTestSupport {
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Test
+    void exportProducts_AllActive_OneJsonObjectPerLine() throws IOException {
+        ProductResponse active = create("EXPORT-1", 1);
+        ProductResponse inactive = create("EXPORT-2");
+        productService.updateProduct(inactive.getId(), UpdateProductRequest.builder().active(false).build());
+
+        List<ProductResponse> exported = export(null);
+
+        assertTrue(exported.stream().allMatch(ProductResponse::isActive));
+        assertTrue(exported.stream().anyMatch(product -> product.getId().equals(active.getId())
+                && "EXPORT-1".equals(product.getSku()) && product.getQuantity() == 1));
+        assertTrue(exported.stream().noneMatch(product -> product.getId().equals(inactive.getId())));
+        // Порядок по id: выгрузку можно сравнивать построчно
+        assertEquals(exported.stream().map(ProductResponse::getId).sorted().toList(),
+                exported.stream().map(ProductResponse::getId).toList());
+    }
+
+    @Test
+    void exportProducts_UpdatedSince_IncludesDeactivated() throws IOException {
+        create("EXPORT-OLD");
+        LocalDateTime since = LocalDateTime.now();
+        ProductResponse created = create("EXPORT-NEW");
+        productService.updateProduct(created.getId(), UpdateProductRequest.builder().active(false).build());
+
+        List<ProductResponse> exported = export(since);
+
+        assertEquals(1, exported.size());
+        assertEquals(created.getId(), exported.getFirst().getId());
+        assertFalse(exported.getFirst().isActive());
+        // Остаток в выгрузку изменений не попадает: его изменения не сдвигают updatedAt
+        assertNull(exported.getFirst().getQuantity());
+    }
+
+    private List<ProductResponse> export(LocalDateTime updatedSince) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long count = productExportService.exportProducts(updatedSince, output);
+
+        List<ProductResponse> products = Arrays.stream(output.toString(StandardCharsets.UTF_8).split("\n"))
+                .filter(line -> !line.isEmpty())
+                .map(line -> jsonMapper.readValue(line, ProductResponse.class))
+                .toList();
+        assertEquals(count, products.size());
+        return products;
+    }
+}
@@ -0,0 +1,125 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.*;
+import com.ecommerce.productservice.exception.BadRequestException;
+import com.ecommerce.productservice.search.ProductFacetIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductFilterTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void filterProducts_SubtreePriceAndStock_WithFacets() {
+        CategoryResponse tools = category("Filter Tools", null);
+        CategoryResponse power = category("Filter Power Tools", tools.getId());
+        ProductResponse hammer = product("Filter Hammer", "15.00", 3, tools);
+        ProductResponse drill = product("Filter Drill", "89.00", 1, power);
+        ProductResponse sander = product("Filter Sander", "25.00", 0, power);
+
+        ProductFilterResponse all = productService.filterProducts(tools.getId(), null, null, false, true, 0, 20);
+        assertEquals(List.of(hammer.getId(), drill.getId(), sander.getId()), ids(all));
+        assertEquals(1, priceCount(all, "10"));
+        assertEquals(1, priceCount(all, "25"));
+        assertEquals(1, priceCount(all, "50"));
+
+        // Фасет категорий не зависит от фильтра категории и суммирует подкатегории
+        ProductFilterResponse cheap = productService.filterProducts(power.getId(), null, new BigDecimal("25"), false, true, 0, 20);
+        assertEquals(List.of(sander.getId()), ids(cheap));
+        assertEquals(2, categoryCount(cheap, tools.getId()));
+        assertEquals(1, categoryCount(cheap, power.getId()));
+
+        ProductFilterResponse inStock = productService.filterProducts(tools.getId(), null, null, true, true, 0, 20);
+        assertEquals(List.of(hammer.getId(), drill.getId()), ids(inStock));
+
+        productService.reserveStock(drill.getId(), 1);
+        productFacetIndex.refreshStock();
+        inStock = productService.filterProducts(tools.getId(), null, null, true, true, 0, 20);
+        assertEquals(List.of(hammer.getId()), ids(inStock));
+
+        productService.updateProduct(hammer.getId(), UpdateProductRequest.builder().active(false).build());
+        assertEquals(List.of(drill.getId(), sander.getId()),
+                ids(productService.filterProducts(tools.getId(), null, null, false, true, 0, 20)));
+        assertEquals(List.of(hammer.getId()),
+                ids(productService.filterProducts(tools.getId(), null, null, false, false, 0, 20)));
+
+        ProductFilterResponse secondPage = productService.filterProducts(tools.getId(), null, null, false, true, 1, 1);
+        assertEquals(2, secondPage.getTotalElements());
+        assertEquals(List.of(sander.getId()), ids(secondPage));
+    }
+
+    @Test
+    void filterProducts_ChangeOnAnotherInstance_PickedUpByRebuild() {
+        CategoryResponse garden = category("Filter Garden", null);
+        ProductResponse rake = product("Filter Rake", "15.00", 3, garden);
+
+        // Изменение на другом экземпляре: событие сюда не приходит
+        jdbcTemplate.update("UPDATE products SET price = 120.00 WHERE id = ?", rake.getId());
+        assertEquals(1, priceCount(productService.filterProducts(garden.getId(), null, null, false, true, 0, 20), "10"));
+
+        productFacetIndex.rebuild();
+        ProductFilterResponse rebuilt = productService.filterProducts(garden.getId(), null, null, false, true, 0, 20);
+        assertEquals(List.of(rake.getId()), ids(rebuilt));
+        assertEquals(0, priceCount(rebuilt, "10"));
+        assertEquals(1, priceCount(rebuilt, "100"));
+    }
+
+    @Test
+    void filterProducts_InvalidPriceRange_Rejected() {
+        assertThrows(BadRequestException.class, () -> productService.filterProducts(
+                null, new BigDecimal("50"), new BigDecimal("10"), false, true, 0, 20));
+    }
+
+    private CategoryResponse category(String name, Long parentId) {
+        return categoryService.createCategory(CreateCategoryRequest.builder()
+                .name(name + " " + System.nanoTime())
+                .parentId(parentId)
+                .build());
+    }
+
+    private ProductResponse product(String name, String price, int quantity, CategoryResponse category) {
+        return productService.createProduct(CreateProductRequest.builder()
+                .name(name)
+                .price(new BigDecimal(price))
+                .quantity(quantity)
+                .categoryId(category.getId())
+                .build());
+    }
+
+    private static List<Long> ids(ProductFilterResponse response) {
+        return response.getContent().stream().map(ProductResponse::getId).toList();
+    }
+
+    private static long priceCount(ProductFilterResponse response, String from) {
+        return response.getPrices().stream()
+                .filter(facet -> facet.getFrom().compareTo(new BigDecimal(from)) == 0)
+                .findFirst().orElseThrow().getCount();
+    }
+
+    private static long categoryCount(ProductFilterResponse response, Long categoryId) {
+        return response.getCategories().stream()
+                .filter(facet -> facet.getCategoryId().equals(categoryId))
+                .findFirst().orElseThrow().getCount();
+    }
+}
@@ -0,0 +1,90 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.CategoryResponse;
+import com.ecommerce.productservice.dto.ImportRowError;
+import com.ecommerce.productservice.dto.ProductImportReport;
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.importer.ProductImportReader;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestPropertySource(properties = "products.import.batch-size=2")
+class ProductImportTest extends ProductServiceTestSupport {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Test
+    void importProducts_Ndjson_InsertsValidRowsAndReportsErrors() throws IOException {
+        CategoryResponse category = category("Import " + System.nanoTime(), null);
+        String body = """
+                {"name":"Import Drill","price":59.90,"quantity":7,"sku":"IMP-NDJ-1","categoryId":%d}
+                {"name":"Import Saw","price":19.00,"quantity":3,"sku":"IMP-NDJ-2"}
+
+                {"name":"","price":5,"quantity":1,"sku":"IMP-NDJ-3"}
+                {"name":"Import Clamp","price":4.50,"quantity":1,"sku":"IMP-NDJ-1"}
+                {"name":"Import Vise","price":40,"quantity":1,"sku":"IMP-NDJ-5","categoryId":999999}
+                {"name":"broken
+                {"name":"Import Level","price":12,"quantity":2}
+                """.formatted(category.getId());
+
+        ProductImportReport report = productImportService.importProducts(ProductImportReader.NDJSON, stream(body));
+
+        assertEquals(7, report.getReceived());
+        assertEquals(3, report.getImported());
+        assertEquals(4, report.getFailed());
+        assertFalse(report.isErrorsTruncated());
+        assertEquals(4, report.getErrors().get(0).getLine());
+        assertEquals(5, report.getErrors().get(1).getLine());
+        assertEquals("IMP-NDJ-1", report.getErrors().get(1).getSku());
+        assertEquals(6, report.getErrors().get(2).getLine());
+        assertEquals(7, report.getErrors().get(3).getLine());
+
+        ProductResponse drill = productService.getProductBySku("IMP-NDJ-1");
+        assertEquals("Import Drill", drill.getName());
+        assertEquals(0, new BigDecimal("59.90").compareTo(drill.getPrice()));
+        assertEquals(category.getId(), drill.getCategory().getId());
+        assertNotNull(drill.getCreatedAt());
+        // Импортированные товары сразу находятся поиском
+        assertTrue(productService.searchProducts("drill", PageRequest.of(0, 10)).getContent().stream()
+                .anyMatch(product -> product.getId().equals(drill.getId())));
+    }
+
+    @Test
+    void importProducts_Csv_QuotedFieldsAndRowErrors() throws IOException {
+        String body = """
+                sku,name,description,price,quantity
+                IMP-CSV-1,"Import Table, oak","Solid ""oak""
+                top",120.00,2
+                IMP-CSV-2,Import Chair,,abc,4
+                IMP-CSV-3,Import Shelf,Wall,30
+                IMP-CSV-4,Import Stool,,15.5,9
+                """;
+
+        ProductImportReport report = productImportService.importProducts(ProductImportReader.CSV, stream(body));
+
+        assertEquals(4, report.getReceived());
+        assertEquals(2, report.getImported());
+        assertEquals(4, report.getErrors().get(0).getLine());
+        assertTrue(report.getErrors().get(0).getMessage().contains("price"));
+        assertEquals(5, report.getErrors().stream().mapToLong(ImportRowError::getLine).max().orElseThrow());
+
+        ProductResponse table = productService.getProductBySku("IMP-CSV-1");
+        assertEquals("Import Table, oak", table.getName());
+        assertEquals("Solid \"oak\"\ntop", table.getDescription());
+        assertEquals(9, productService.getProductBySku("IMP-CSV-4").getQuantity());
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,78 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.CategoryResponse;
+import com.ecommerce.productservice.dto.CreateCategoryRequest;
+import com.ecommerce.productservice.dto.CreateProductRequest;
+import com.ecommerce.productservice.dto.ProductPageResponse;
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductKeysetListingTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Test
+    void listProducts_WalkAllPagesByPriceDesc_VisitsEveryProductOnceInOrder() {
+        CategoryResponse category = categoryService.createCategory(CreateCategoryRequest.builder()
+                .name("Keyset " + System.nanoTime())
+                .build());
+        List<Long> created = new ArrayList<>();
+        // Повторяющиеся цены проверяют разрешение равенства по id
+        for (int i = 0; i < 11; i++) {
+            created.add(productService.createProduct(CreateProductRequest.builder()
+                    .name("Keyset item " + i)
+                    .price(new BigDecimal(10 + i % 4))
+                    .quantity(1)
+                    .sku("KEYSET-" + category.getId() + "-" + i)
+                    .categoryId(category.getId())
+                    .build()).getId());
+        }
+
+        List<ProductResponse> visited = new ArrayList<>();
+        String cursor = null;
+        do {
+            ProductPageResponse page = productService.listProducts(category.getId(), "price", "desc", cursor, 3, false);
+            visited.addAll(page.getContent());
+            cursor = page.getNextCursor();
+            assertEquals(page.isHasNext(), cursor != null);
+        } while (cursor != null);
+
+        List<ProductResponse> expected = visited.stream()
+                .sorted(Comparator.comparing(ProductResponse::getPrice).reversed()
+                        .thenComparing(ProductResponse::getId, Comparator.reverseOrder()))
+                .toList();
+        assertEquals(expected, visited);
+        assertEquals(created.stream().sorted().toList(),
+                visited.stream().map(ProductResponse::getId).sorted().toList());
+    }
+
+    @Test
+    void listProducts_CursorFromOtherListing_Rejected() {
+        ProductPageResponse page = productService.listProducts(null, "name", "asc", null, 1, false);
+        assertNotNull(page.getNextCursor());
+
+        assertThrows(BadRequestException.class,
+                () -> productService.listProducts(1L, "name", "asc", page.getNextCursor(), 1, false));
+        assertThrows(BadRequestException.class,
+                () -> productService.listProducts(null, "id", "asc", "not-a-cursor", 1, false));
+        assertThrows(BadRequestException.class,
+                () -> productService.listProducts(null, "description", "asc", null, 1, false));
+    }
+}
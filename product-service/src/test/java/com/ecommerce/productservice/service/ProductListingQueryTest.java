@@ -0,0 +1,96 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.CategoryResponse;
+import com.ecommerce.productservice.dto.CreateCategoryRequest;
+import com.ecommerce.productservice.dto.CreateProductRequest;
+import com.ecommerce.productservice.dto.ProductPageResponse;
+import com.ecommerce.productservice.dto.ProductResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Число SQL-запросов на страницу не зависит от размера страницы
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductListingQueryTest {
+
+    private static final int PAGE_SIZE = 5;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private CategoryResponse category;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        CategoryResponse parent = categoryService.createCategory(CreateCategoryRequest.builder()
+                .name("Listing Parent " + System.nanoTime())
+                .build());
+        category = categoryService.createCategory(CreateCategoryRequest.builder()
+                .name("Listing Child " + System.nanoTime())
+                .parentId(parent.getId())
+                .build());
+        for (int i = 0; i < PAGE_SIZE * 2; i++) {
+            productService.createProduct(CreateProductRequest.builder()
+                    .name("Listing gadget " + i)
+                    .price(new BigDecimal("3.00"))
+                    .quantity(1)
+                    .sku("LIST-" + category.getId() + "-" + i)
+                    .categoryId(category.getId())
+                    .build());
+        }
+        statistics.clear();
+    }
+
+    @Test
+    void listProducts_Page_OneStatement() {
+        ProductPageResponse page = productService.listProducts(null, "id", "asc", null, PAGE_SIZE, false);
+
+        assertEquals(PAGE_SIZE, page.getContent().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void listProductsByCategory_PageAndTotal_TwoStatements() {
+        ProductPageResponse page = productService.listProducts(category.getId(), "price", "desc", null, PAGE_SIZE, true);
+
+        assertEquals(PAGE_SIZE, page.getContent().size());
+        assertEquals(PAGE_SIZE * 2, page.getTotalElements());
+        page.getContent().forEach(product -> {
+            assertEquals(category.getId(), product.getCategory().getId());
+            assertEquals(category.getParentId(), product.getCategory().getParentId());
+        });
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void searchProducts_IndexHits_OneStatement() {
+        Page<ProductResponse> page = productService.searchProducts("listing gadget", PageRequest.of(0, PAGE_SIZE));
+
+        assertEquals(PAGE_SIZE, page.getContent().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,58 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.InventoryRequest;
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.dto.StockHoldRequest;
+import com.ecommerce.productservice.exception.BadRequestException;
+import com.ecommerce.productservice.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductRelatedTest extends ProductServiceTestSupport {
+
+    @Autowired
+    private StockReservationService reservationService;
+
+    @Test
+    void getRelatedProducts_LearnsFromConfirmedOrdersOnly() {
+        ProductResponse camera = create("RELATED-1");
+        ProductResponse lens = create("RELATED-2");
+        ProductResponse bag = create("RELATED-3");
+        ProductResponse strap = create("RELATED-4");
+
+        order("ORD-RELATED-1", camera, lens, bag);
+        order("ORD-RELATED-2", camera, lens);
+        // Повторное подтверждение не учитывает заказ второй раз
+        order("ORD-RELATED-2", camera, lens);
+        // Неподтвержденный заказ не учитывается
+        reservationService.hold(holdRequest("ORD-RELATED-3", camera, strap));
+
+        assertEquals(List.of(lens.getId(), bag.getId()), ids(productService.getRelatedProducts(camera.getId(), 10)));
+        assertEquals(List.of(), productService.getRelatedProducts(strap.getId(), 10));
+
+        productService.deleteProduct(lens.getId());
+        assertEquals(List.of(bag.getId()), ids(productService.getRelatedProducts(camera.getId(), 10)));
+
+        assertThrows(ResourceNotFoundException.class, () -> productService.getRelatedProducts(lens.getId(), 10));
+        assertThrows(BadRequestException.class, () -> productService.getRelatedProducts(camera.getId(), 0));
+    }
+
+    private void order(String orderReference, ProductResponse... products) {
+        reservationService.hold(holdRequest(orderReference, products));
+        assertTrue(reservationService.confirm(orderReference));
+    }
+
+    private StockHoldRequest holdRequest(String orderReference, ProductResponse... products) {
+        return StockHoldRequest.builder()
+                .orderReference(orderReference)
+                .items(Arrays.stream(products)
+                        .map(product -> new InventoryRequest(product.getId(), 1))
+                        .toList())
+                .build();
+    }
+}
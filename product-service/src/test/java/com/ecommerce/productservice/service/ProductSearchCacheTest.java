@@ -0,0 +1,57 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.dto.UpdateProductRequest;
+import com.ecommerce.productservice.search.ProductSearchIndex;
+import com.ecommerce.productservice.search.SearchResultCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchCacheTest extends ProductServiceTestSupport {
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    private final AtomicInteger searches = new AtomicInteger();
+
+    @Test
+    void get_InvalidatedOnlyByMatchingProductWrites() {
+        ProductResponse shelf = productService.createProduct(product("Quokka Shelf", null).build());
+
+        assertEquals(1, search("quokka").total());
+        search("QUOKKA ");
+        assertEquals(1, searches.get());
+
+        productService.createProduct(product("Wombat Stand", null).build());
+        search("quokka");
+        assertEquals(1, searches.get());
+
+        // Опечатка и префикс: индекс находит эти товары по запросу "quokka"
+        productService.createProduct(product("Quoka Clock", null).build());
+        assertEquals(2, search("quokka").total());
+        assertEquals(2, searches.get());
+
+        productService.createProduct(product("Quokkas Poster", null).build());
+        assertEquals(3, search("quokka").total());
+        assertEquals(3, searches.get());
+
+        // Старые термы переименованного товара тоже сбрасывают результат
+        productService.updateProduct(shelf.getId(), UpdateProductRequest.builder().name("Walnut Shelf").build());
+        assertEquals(2, search("quokka").total());
+        assertEquals(4, searches.get());
+    }
+
+    private ProductSearchIndex.SearchHits search(String query) {
+        return searchResultCache.get(query, 0, 10, () -> {
+            searches.incrementAndGet();
+            return productSearchIndex.search(query, 0, 10);
+        });
+    }
+}
@@ -0,0 +1,77 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.dto.UpdateProductRequest;
+import com.ecommerce.productservice.search.ProductSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchTest extends ProductServiceTestSupport {
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void searchProducts_RanksNameMatchesAboveDescription() {
+        ProductResponse keyboard = create("Mechanical Keyboard", "RGB backlight", "SEARCH-KB-1");
+        ProductResponse mouse = create("Wireless Mouse", "Pairs with any mechanical keyboard", "SEARCH-MS-1");
+
+        Page<ProductResponse> page = productService.searchProducts("mechanical keyboard", PageRequest.of(0, 10));
+
+        assertEquals(2, page.getTotalElements());
+        assertEquals(keyboard.getId(), page.getContent().get(0).getId());
+        assertEquals(mouse.getId(), page.getContent().get(1).getId());
+    }
+
+    @Test
+    void searchProducts_PrefixAndTypo_Match() {
+        ProductResponse headphones = create("Studio Headphones", "Closed-back monitoring", "SEARCH-HP-1");
+
+        assertTrue(ids(productService.searchProducts("headph", PageRequest.of(0, 10))).contains(headphones.getId()));
+        assertTrue(ids(productService.searchProducts("studoi", PageRequest.of(0, 10))).contains(headphones.getId()));
+        assertTrue(ids(productService.searchProducts("search-hp-1", PageRequest.of(0, 10))).contains(headphones.getId()));
+    }
+
+    @Test
+    void searchProducts_ReflectsUpdatesAndDeletes() {
+        ProductResponse lamp = create("Desk Lamp", "Warm light", "SEARCH-LP-1");
+
+        productService.updateProduct(lamp.getId(), UpdateProductRequest.builder().name("Floor Lantern").build());
+        assertTrue(productService.searchProducts("lamp", PageRequest.of(0, 10)).isEmpty());
+        assertTrue(ids(productService.searchProducts("lantern", PageRequest.of(0, 10))).contains(lamp.getId()));
+
+        productService.deleteProduct(lamp.getId());
+        assertTrue(productService.searchProducts("lantern", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void searchProducts_ChangeOnAnotherInstance_PickedUpByRebuild() {
+        ProductResponse kettle = create("Electric Kettle", "Boils water", "SEARCH-KT-1");
+
+        // Изменение на другом экземпляре: событие сюда не приходит
+        jdbcTemplate.update("UPDATE products SET name = 'Copper Samovar' WHERE id = ?", kettle.getId());
+        assertTrue(productService.searchProducts("samovar", PageRequest.of(0, 10)).isEmpty());
+
+        productSearchIndex.rebuild();
+        assertTrue(ids(productService.searchProducts("samovar", PageRequest.of(0, 10))).contains(kettle.getId()));
+        assertFalse(ids(productService.searchProducts("kettle", PageRequest.of(0, 10))).contains(kettle.getId()));
+    }
+
+    private ProductResponse create(String name, String description, String sku) {
+        return productService.createProduct(product(name, sku).description(description).build());
+    }
+
+    private static List<Long> ids(Page<ProductResponse> page) {
+        return page.getContent().stream().map(ProductResponse::getId).toList();
+    }
+}
@@ -0,0 +1,57 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.CategoryResponse;
+import com.ecommerce.productservice.dto.CreateCategoryRequest;
+import com.ecommerce.productservice.dto.CreateProductRequest;
+import com.ecommerce.productservice.dto.ProductResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Общий контекст и фикстуры интеграционных тестов ProductService
+ * Тесты делят одну БД, поэтому SKU в каждом тесте уникальны
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+abstract class ProductServiceTestSupport {
+
+    @Autowired
+    protected ProductService productService;
+
+    @Autowired
+    protected CategoryService categoryService;
+
+    protected ProductResponse create(String sku) {
+        return create(sku, 10);
+    }
+
+    protected ProductResponse create(String sku, int quantity) {
+        return productService.createProduct(product("Product " + sku, sku).quantity(quantity).build());
+    }
+
+    /**
+     * Запрос с ценой и остатком по умолчанию; тест дополняет нужные ему поля
+     */
+    protected static CreateProductRequest.CreateProductRequestBuilder product(String name, String sku) {
+        return CreateProductRequest.builder()
+                .name(name)
+                .price(new BigDecimal("20.00"))
+                .quantity(10)
+                .sku(sku);
+    }
+
+    protected CategoryResponse category(String name, Long parentId) {
+        return categoryService.createCategory(CreateCategoryRequest.builder()
+                .name(name)
+                .parentId(parentId)
+                .build());
+    }
+
+    protected static List<Long> ids(List<ProductResponse> products) {
+        return products.stream().map(ProductResponse::getId).toList();
+    }
+}
@@ -0,0 +1,86 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.InventoryRequest;
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.dto.StockAvailability;
+import com.ecommerce.productservice.dto.UpdateProductRequest;
+import com.ecommerce.productservice.exception.InsufficientStockException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductStockBatchTest extends ProductServiceTestSupport {
+
+    @Test
+    void reserveStockBatch_AllAvailable_ReservesEveryLine() {
+        ProductResponse first = create("BATCH-1", 10);
+        ProductResponse second = create("BATCH-2", 5);
+
+        assertTrue(productService.reserveStockBatch(List.of(
+                new InventoryRequest(second.getId(), 2),
+                new InventoryRequest(first.getId(), 3),
+                new InventoryRequest(second.getId(), 1))));
+
+        assertEquals(7, productService.getProductById(first.getId()).getQuantity());
+        assertEquals(2, productService.getProductById(second.getId()).getQuantity());
+
+        productService.releaseStockBatch(List.of(
+                new InventoryRequest(first.getId(), 3),
+                new InventoryRequest(second.getId(), 3)));
+
+        assertEquals(10, productService.getProductById(first.getId()).getQuantity());
+        assertEquals(5, productService.getProductById(second.getId()).getQuantity());
+    }
+
+    @Test
+    void reserveStockBatch_OneLineShort_ReservesNothing() {
+        ProductResponse first = create("BATCH-3", 10);
+        ProductResponse second = create("BATCH-4", 1);
+
+        assertThrows(InsufficientStockException.class, () -> productService.reserveStockBatch(List.of(
+                new InventoryRequest(first.getId(), 4),
+                new InventoryRequest(second.getId(), 2))));
+
+        assertEquals(10, productService.getProductById(first.getId()).getQuantity());
+        assertEquals(1, productService.getProductById(second.getId()).getQuantity());
+    }
+
+    @Test
+    void checkStockBatch_ReturnsAvailabilityInRequestOrder() {
+        ProductResponse first = create("BATCH-5", 4);
+        ProductResponse second = create("BATCH-6", 2);
+
+        List<StockAvailability> result = productService.checkStockBatch(List.of(
+                new InventoryRequest(second.getId(), 2),
+                new InventoryRequest(first.getId(), 3),
+                new InventoryRequest(second.getId(), 1),
+                new InventoryRequest(-1L, 1)));
+
+        assertEquals(List.of(second.getId(), first.getId(), -1L),
+                result.stream().map(StockAvailability::getProductId).toList());
+        assertEquals(new StockAvailability(second.getId(), 3, 2, false), result.get(0));
+        assertEquals(new StockAvailability(first.getId(), 3, 4, true), result.get(1));
+        assertEquals(new StockAvailability(-1L, 1, 0, false), result.get(2));
+    }
+
+    @Test
+    void checkStockBatch_InactiveProduct_NotAvailable() {
+        ProductResponse product = create("BATCH-7", 5);
+        productService.updateProduct(product.getId(), UpdateProductRequest.builder().active(false).build());
+
+        assertEquals(List.of(new StockAvailability(product.getId(), 1, 0, false)),
+                productService.checkStockBatch(List.of(new InventoryRequest(product.getId(), 1))));
+    }
+
+    @Test
+    void checkStock_InactiveProduct_NotAvailable() {
+        ProductResponse product = create("BATCH-8", 5);
+        assertTrue(productService.checkStock(product.getId(), 1));
+
+        productService.updateProduct(product.getId(), UpdateProductRequest.builder().active(false).build());
+
+        assertFalse(productService.checkStock(product.getId(), 1));
+    }
+}
@@ -0,0 +1,69 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.InventoryRequest;
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.dto.ProductSuggestion;
+import com.ecommerce.productservice.dto.StockHoldRequest;
+import com.ecommerce.productservice.search.ProductSuggester;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSuggestTest extends ProductServiceTestSupport {
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ProductSuggester productSuggester;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void suggestProducts_WordPrefixAndSku_RankedByUnitsSold() {
+        ProductResponse phone = productService.createProduct(product("Zephyr Phone X", "ZPH-100").build());
+        ProductResponse charger = productService.createProduct(product("Zephyr Cable", "ZCH-200").build());
+        productSuggester.rebuildIfChanged();
+
+        assertEquals(List.of(charger.getId(), phone.getId()), suggestionIds(productService.suggestProducts("zeph", 10)));
+        assertEquals(List.of(phone.getId()), suggestionIds(productService.suggestProducts("phone", 10)));
+        assertEquals(List.of(phone.getId()), suggestionIds(productService.suggestProducts("zph-1", 10)));
+        assertTrue(productService.suggestProducts("zephyr phones", 10).isEmpty());
+
+        stockReservationService.hold(StockHoldRequest.builder()
+                .orderReference("SUGGEST-ORDER-1")
+                .items(List.of(new InventoryRequest(phone.getId(), 3)))
+                .build());
+        stockReservationService.confirm("SUGGEST-ORDER-1");
+        productSuggester.reload();
+
+        assertEquals(List.of(phone.getId(), charger.getId()), suggestionIds(productService.suggestProducts("ze", 10)));
+        assertEquals(List.of(phone.getId()), suggestionIds(productService.suggestProducts("ze", 1)));
+
+        productService.deleteProduct(charger.getId());
+        productSuggester.rebuildIfChanged();
+        assertEquals(List.of(phone.getId()), suggestionIds(productService.suggestProducts("zephyr", 10)));
+    }
+
+    @Test
+    void suggestProducts_ChangeOnAnotherInstance_PickedUpByReload() {
+        ProductResponse tent = productService.createProduct(product("Numbat Tent", "NBT-100").build());
+        productSuggester.rebuildIfChanged();
+
+        // Изменение на другом экземпляре: событие сюда не приходит
+        jdbcTemplate.update("UPDATE products SET active = FALSE WHERE id = ?", tent.getId());
+        assertEquals(List.of(tent.getId()), suggestionIds(productService.suggestProducts("numbat", 10)));
+
+        productSuggester.reload();
+        assertTrue(productService.suggestProducts("numbat", 10).isEmpty());
+    }
+
+    private static List<Long> suggestionIds(List<ProductSuggestion> suggestions) {
+        return suggestions.stream().map(ProductSuggestion::getId).toList();
+    }
+}
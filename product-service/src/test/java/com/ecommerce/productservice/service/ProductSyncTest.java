@@ -0,0 +1,98 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.dto.ProductSyncReport;
+import com.ecommerce.productservice.dto.UpdateProductRequest;
+import com.ecommerce.productservice.importer.ProductImportReader;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Отдельная БД: синхронизация снимает с продажи все товары, которых нет в фиде
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:synctest",
+        "products.import.batch-size=2",
+        // Начальные данные отсутствуют в фиде целиком
+        "products.import.max-deactivate-fraction=1.0"
+})
+class ProductSyncTest extends ProductServiceTestSupport {
+
+    private static final String FEED = """
+            {"sku":"SYNC-1","name":"Sync Hammer","price":10.00,"quantity":5}
+            {"sku":"SYNC-2","name":"Sync Wrench","price":12.50,"quantity":3}
+            {"sku":"SYNC-3","name":"Sync Pliers","price":8,"quantity":1}
+            """;
+
+    private static final String NEXT_FEED = """
+            {"sku":"SYNC-1","name":"Sync Hammer","price":10.0,"quantity":5}
+            {"sku":"SYNC-2","name":"Sync Wrench","price":13.00,"quantity":3}
+            {"sku":"SYNC-4","name":"Sync Level","price":20,"quantity":2}
+            {"sku":"SYNC-4","name":"Sync Level","price":20,"quantity":2}
+            {"name":"Sync No Sku","price":1,"quantity":1}
+            """;
+
+    private static final String CLEAN_FEED = """
+            {"sku":"SYNC-1","name":"Sync Hammer","price":10.0,"quantity":5}
+            {"sku":"SYNC-2","name":"Sync Wrench","price":13.00,"quantity":3}
+            {"sku":"SYNC-4","name":"Sync Level","price":20,"quantity":2}
+            """;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Test
+    void syncProducts_WritesOnlyChangedRows() throws IOException {
+        ProductSyncReport initial = sync(FEED);
+        assertEquals(3, initial.getCreated());
+        ProductResponse hammer = productService.getProductBySku("SYNC-1");
+
+        productService.reserveStock(productService.getProductBySku("SYNC-2").getId(), 1);
+        ProductSyncReport next = sync(NEXT_FEED);
+        assertEquals(5, next.getReceived());
+        assertEquals(1, next.getCreated());
+        assertEquals(1, next.getUpdated());
+        assertEquals(1, next.getUnchanged());
+        assertEquals(2, next.getFailed());
+        // Фид с ошибками не снимает товары с продажи
+        assertEquals(0, next.getDeactivated());
+        assertTrue(next.isDeactivationSkipped());
+
+        assertEquals(hammer.getUpdatedAt(), productService.getProductBySku("SYNC-1").getUpdatedAt());
+        assertEquals(0, new BigDecimal("13.00").compareTo(productService.getProductBySku("SYNC-2").getPrice()));
+        // Остаток существующего товара ведут продажи, а не фид
+        assertEquals(2, productService.getProductBySku("SYNC-2").getQuantity());
+        assertTrue(productService.getProductBySku("SYNC-3").isActive());
+
+        assertTrue(sync("").isDeactivationSkipped());
+        assertTrue(productService.getProductBySku("SYNC-3").isActive());
+
+        ProductSyncReport clean = sync(CLEAN_FEED);
+        assertEquals(1, clean.getDeactivated());
+        assertFalse(clean.isDeactivationSkipped());
+        assertFalse(productService.getProductBySku("SYNC-3").isActive());
+
+        // Правка через API меняет хеш, и следующий фид возвращает значение поставщика;
+        // снятый с продажи товар, вернувшийся в фид, снова активен
+        productService.updateProduct(hammer.getId(), UpdateProductRequest.builder().name("Renamed").build());
+        ProductSyncReport restored = sync(CLEAN_FEED + """
+                {"sku":"SYNC-3","name":"Sync Pliers","price":8,"quantity":1}
+                """);
+        assertEquals(2, restored.getUpdated());
+        assertEquals(2, restored.getUnchanged());
+        assertEquals(0, restored.getDeactivated());
+        assertEquals("Sync Hammer", productService.getProductBySku("SYNC-1").getName());
+        assertTrue(productService.getProductBySku("SYNC-3").isActive());
+    }
+
+    private ProductSyncReport sync(String body) throws IOException {
+        return productImportService.syncProducts(ProductImportReader.NDJSON,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), true);
+    }
+}
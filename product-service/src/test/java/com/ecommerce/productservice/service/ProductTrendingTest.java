@@ -0,0 +1,60 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.exception.BadRequestException;
+import com.ecommerce.productservice.trending.TrendingProducts;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:trendingtest",
+        // Окно сдвигается вручную
+        "products.trending.window=3600000"
+})
+class ProductTrendingTest extends ProductServiceTestSupport {
+
+    @Autowired
+    private TrendingProducts trendingProducts;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void getTrendingProducts_RanksViewsAndFlushesCounts() {
+        ProductResponse lamp = create("TREND-1");
+        ProductResponse chair = create("TREND-2");
+
+        view(lamp, 2);
+        view(chair, 3);
+        trendingProducts.rollWindow();
+        assertEquals(List.of(chair.getId(), lamp.getId()), ids(productService.getTrendingProducts(10)));
+        assertEquals(2L, views(lamp));
+        assertEquals(3L, views(chair));
+
+        view(lamp, 1);
+        trendingProducts.rollWindow();
+        assertEquals(3L, views(lamp));
+
+        productService.deleteProduct(chair.getId());
+        assertEquals(List.of(lamp.getId()), ids(productService.getTrendingProducts(10)));
+
+        assertThrows(BadRequestException.class, () -> productService.getTrendingProducts(0));
+    }
+
+    private void view(ProductResponse product, int times) {
+        for (int i = 0; i < times; i++) {
+            productService.recordView(product.getId());
+        }
+    }
+
+    private Long views(ProductResponse product) {
+        return jdbcTemplate.queryForObject("SELECT views FROM product_view_stats WHERE product_id = ?",
+                Long.class, product.getId());
+    }
+}
@@ -0,0 +1,135 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.InventoryRequest;
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.dto.StockHoldRequest;
+import com.ecommerce.productservice.entity.ReservationStatus;
+import com.ecommerce.productservice.entity.StockReservation;
+import com.ecommerce.productservice.exception.InsufficientStockException;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.repository.StockReservationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockReservationServiceTest extends ProductServiceTestSupport {
+
+    @Autowired
+    private StockReservationService reservationService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Test
+    void holdConfirmRelease_TracksStockByOrder() {
+        ProductResponse product = create("HOLD-1", 10);
+
+        assertTrue(reservationService.hold(holdRequest("ORD-HOLD-1", product.getId(), 4)));
+        // Повторный запрос с тем же номером заказа не резервирует второй раз
+        assertTrue(reservationService.hold(holdRequest("ORD-HOLD-1", product.getId(), 4)));
+        assertEquals(6, quantity(product.getId()));
+
+        assertTrue(reservationService.confirm("ORD-HOLD-1"));
+        assertTrue(reservationService.confirm("ORD-HOLD-1"));
+
+        reservationService.release("ORD-HOLD-1");
+        reservationService.release("ORD-HOLD-1");
+        assertEquals(10, quantity(product.getId()));
+        assertFalse(reservationService.confirm("ORD-HOLD-1"));
+    }
+
+    @Test
+    void hold_ConcurrentRetriesOfSameOrder_ReserveOnce() throws Exception {
+        ProductResponse product = create("HOLD-4", 10);
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return reservationService.hold(holdRequest("ORD-HOLD-4", product.getId(), 3));
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(7, quantity(product.getId()));
+    }
+
+    @Test
+    void hold_InsufficientStock_LeavesNoLedgerRows() {
+        ProductResponse product = create("HOLD-2", 1);
+
+        assertThrows(InsufficientStockException.class,
+                () -> reservationService.hold(holdRequest("ORD-HOLD-2", product.getId(), 2)));
+
+        assertFalse(reservationRepository.existsByOrderReference("ORD-HOLD-2"));
+        assertEquals(1, quantity(product.getId()));
+    }
+
+    @Test
+    void releaseExpired_ReturnsStockAndBlocksConfirmation() {
+        ProductResponse product = create("HOLD-3", 5);
+        reservationService.hold(holdRequest("ORD-HOLD-3", product.getId(), 5));
+        expire("ORD-HOLD-3");
+
+        int released = 0;
+        int batch;
+        while ((batch = reservationService.releaseExpired(100)) > 0) {
+            released += batch;
+        }
+
+        assertTrue(released >= 1);
+        assertEquals(5, quantity(product.getId()));
+        assertFalse(reservationService.confirm("ORD-HOLD-3"));
+        assertTrue(reservationRepository.existsByOrderReferenceAndStatus("ORD-HOLD-3", ReservationStatus.EXPIRED));
+    }
+
+    @Test
+    void confirm_ExpiredHoldBeforeCleanup_ReturnsFalse() {
+        ProductResponse product = create("HOLD-5", 5);
+        reservationService.hold(holdRequest("ORD-HOLD-5", product.getId(), 2));
+        expire("ORD-HOLD-5");
+
+        assertFalse(reservationService.confirm("ORD-HOLD-5"));
+        assertTrue(reservationRepository.existsByOrderReferenceAndStatus("ORD-HOLD-5", ReservationStatus.HELD));
+    }
+
+    private void expire(String orderReference) {
+        List<StockReservation> reservations = reservationRepository.findAll().stream()
+                .filter(reservation -> reservation.getOrderReference().equals(orderReference))
+                .toList();
+        reservations.forEach(reservation -> reservation.setExpiresAt(LocalDateTime.now().minusMinutes(1)));
+        reservationRepository.saveAll(reservations);
+    }
+
+    private StockHoldRequest holdRequest(String orderReference, Long productId, int quantity) {
+        return StockHoldRequest.builder()
+                .orderReference(orderReference)
+                .items(List.of(new InventoryRequest(productId, quantity)))
+                .build();
+    }
+
+    private int quantity(Long productId) {
+        return productRepository.findById(productId).orElseThrow().getQuantity();
+    }
+}
@@ -0,0 +1,103 @@
+package com.ecommerce.productservice.trending;
+
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.event.ProductChangedEvent;
+import com.ecommerce.productservice.repository.ProductViewStatsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrendingProductsTest {
+
+    private final RecordingRepository repository = new RecordingRepository();
+
+    // Полураспад за одно окно
+    private final TrendingProducts trending = new TrendingProducts(repository, 60_000, 60_000, 100);
+
+    @Test
+    void rollWindow_OldViewsDecay() {
+        view(1L, 4);
+        view(3L, 1);
+        trending.rollWindow();
+        assertEquals(List.of(1L, 3L), trending.top(10));
+
+        // Счет товара 1 затух до 2, товара 3 - до 0.5; у товара 2 три свежих просмотра
+        view(2L, 3);
+        trending.rollWindow();
+        assertEquals(List.of(2L, 1L, 3L), trending.top(10));
+        assertEquals(List.of(2L, 1L), trending.top(2));
+
+        // Счет ниже полпросмотра выпадает из топа
+        trending.rollWindow();
+        trending.rollWindow();
+        assertEquals(List.of(2L, 1L), trending.top(10));
+    }
+
+    @Test
+    void rollWindow_FailedFlush_RetriedWithNextWindow() {
+        view(1L, 2);
+        repository.failNext = true;
+        trending.rollWindow();
+        assertTrue(repository.views.isEmpty());
+
+        view(1L, 1);
+        view(2L, 1);
+        trending.rollWindow();
+        assertEquals(Map.of(1L, 3L, 2L, 1L), repository.views);
+
+        // Записанные просмотры не повторяются
+        trending.rollWindow();
+        assertEquals(Map.of(1L, 3L, 2L, 1L), repository.views);
+    }
+
+    @Test
+    void onProductChanged_DeletedOrInactive_RemovedFromTop() {
+        view(1L, 3);
+        view(2L, 2);
+        view(3L, 1);
+        trending.rollWindow();
+
+        trending.onProductChanged(ProductChangedEvent.builder()
+                .productId(1L)
+                .changeType(ProductChangedEvent.ChangeType.DELETED)
+                .build());
+        trending.onProductChanged(ProductChangedEvent.builder()
+                .productId(2L)
+                .changeType(ProductChangedEvent.ChangeType.UPDATED)
+                .product(ProductResponse.builder().id(2L).active(false).build())
+                .build());
+
+        assertEquals(List.of(3L), trending.top(10));
+    }
+
+    private void view(Long productId, int times) {
+        for (int i = 0; i < times; i++) {
+            trending.recordView(productId);
+        }
+    }
+
+    private static class RecordingRepository extends ProductViewStatsRepository {
+
+        private final Map<Long, Long> views = new HashMap<>();
+        private boolean failNext;
+
+        RecordingRepository() {
+            super(null);
+        }
+
+        @Override
+        public void addViews(Map<Long, Long> batch, LocalDateTime now) {
+            if (failNext) {
+                failNext = false;
+                throw new DataAccessResourceFailureException("Database is unavailable");
+            }
+            batch.forEach((id, count) -> views.merge(id, count, Long::sum));
+        }
+    }
+}
@@ -14,8 +14,10 @@ import java.util.List;
 public class AuthResponse {
 
     private String accessToken;
+    private String refreshToken;
     @Builder.Default
     private String tokenType = "Bearer";
+    private long expiresIn;
     private Long userId;
     private String username;
     private String email;
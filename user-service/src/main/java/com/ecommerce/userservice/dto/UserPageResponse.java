@@ -0,0 +1,23 @@
+package com.ecommerce.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserPageResponse {
+
+    private List<UserResponse> content;
+    private int size;
+    private boolean hasNext;
+    /**
+     * id последнего пользователя страницы - передается как afterId для следующей страницы
+     */
+    private Long nextCursor;
+}
@@ -0,0 +1,8 @@
+package com.ecommerce.userservice.exception;
+
+public class BadRequestException extends RuntimeException {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
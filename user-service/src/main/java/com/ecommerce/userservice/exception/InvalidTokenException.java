@@ -0,0 +1,8 @@
+package com.ecommerce.userservice.exception;
+
+public class InvalidTokenException extends RuntimeException {
+
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
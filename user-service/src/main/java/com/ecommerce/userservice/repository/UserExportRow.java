@@ -0,0 +1,29 @@
+package com.ecommerce.userservice.repository;
+
+import com.ecommerce.userservice.entity.Role;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка выгрузки пользователей: пользователь с несколькими ролями дает несколько строк подряд
+ */
+public interface UserExportRow {
+
+    Long getId();
+
+    String getUsername();
+
+    String getEmail();
+
+    String getFirstName();
+
+    String getLastName();
+
+    boolean isEnabled();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    Role.RoleName getRole();
+}
@@ -0,0 +1,8 @@
+package com.ecommerce.userservice.repository;
+
+public interface UserIdentityRow {
+
+    String getUsername();
+
+    String getEmail();
+}
@@ -1,10 +1,19 @@
 package com.ecommerce.userservice.repository;
 
 import com.ecommerce.userservice.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -16,5 +25,27 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
-}
 
+    /**
+     * Keyset пагинация: следующая страница начинается сразу после последнего id
+     */
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Limit limit);
+
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.roles WHERE u.id IN :ids ORDER BY u.id")
+    List<User> findWithRolesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Потоковое чтение через серверный курсор (fetch size), без загрузки сущностей в контекст
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, " +
+            "u.firstName AS firstName, u.lastName AS lastName, u.enabled AS enabled, " +
+            "u.createdAt AS createdAt, u.updatedAt AS updatedAt, r.name AS role " +
+            "FROM User u LEFT JOIN u.roles r ORDER BY u.id")
+    Stream<UserExportRow> streamAllForExport();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.username AS username, u.email AS email FROM User u")
+    Stream<UserIdentityRow> streamAllIdentities();
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.userservice.scheduler;
+
+import com.ecommerce.userservice.service.RefreshTokenService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenCleanupScheduler {
+
+    private final RefreshTokenService refreshTokenService;
+
+    /**
+     * Удаление истекших refresh токенов раз в час
+     */
+    @Scheduled(fixedRateString = "${jwt.refresh-cleanup-interval:3600000}")
+    public void deleteExpiredTokens() {
+        int deleted = refreshTokenService.deleteExpired();
+        if (deleted > 0) {
+            log.info("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+}
@@ -1,82 +1,116 @@
 package com.ecommerce.userservice.security;
 
+import com.ecommerce.userservice.entity.Role;
+import com.ecommerce.userservice.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtTokenProvider {
 
+    public static final String CLAIM_USER_ID = "userId";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_EMAIL = "email";
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private SecretKey signingKey;
+
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    public void init() {
+        // Ключ и парсер потокобезопасны, создаем их один раз
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
-    public String generateToken(Authentication authentication) {
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+    public String generateToken(User user) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
 
         return Jwts.builder()
-                .subject(userDetails.getUsername())
+                .id(UUID.randomUUID().toString())
+                .subject(user.getUsername())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLES, encodeRoles(user))
+                .claim(CLAIM_EMAIL, user.getEmail())
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    public String generateToken(String username) {
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + jwtExpiration);
+    public long getExpirationSeconds() {
+        return jwtExpiration / 1000;
+    }
 
-        return Jwts.builder()
-                .subject(username)
-                .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(getSigningKey())
-                .compact();
+    public Claims getClaimsFromToken(String token) {
+        return jwtParser.parseSignedClaims(token).getPayload();
     }
 
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return getClaimsFromToken(token).getSubject();
+    }
 
-        return claims.getSubject();
+    /**
+     * Роли хранятся в токене одной строкой без префикса: "USER,ADMIN"
+     */
+    public List<GrantedAuthority> getAuthoritiesFromClaims(Claims claims) {
+        String roles = claims.get(CLAIM_ROLES, String.class);
+        if (!StringUtils.hasText(roles)) {
+            return List.of();
+        }
+        return Arrays.stream(roles.split(","))
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(ROLE_PREFIX + role))
+                .toList();
     }
 
-    public boolean validateToken(String token) {
+    /**
+     * Разбор токена с проверкой подписи и срока действия
+     * @return claims или null, если токен невалиден
+     */
+    public Claims getValidClaims(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (MalformedJwtException ex) {
-            // Invalid JWT token
-        } catch (ExpiredJwtException ex) {
-            // Expired JWT token
-        } catch (UnsupportedJwtException ex) {
-            // Unsupported JWT token
-        } catch (IllegalArgumentException ex) {
-            // JWT claims string is empty
+            return getClaimsFromToken(token);
+        } catch (JwtException | IllegalArgumentException ex) {
+            // Invalid, expired or empty JWT token
+            return null;
         }
-        return false;
     }
-}
 
+    public boolean validateToken(String token) {
+        return getValidClaims(token) != null;
+    }
+
+    private String encodeRoles(User user) {
+        return user.getRoles().stream()
+                .map(Role::getName)
+                .map(Role.RoleName::name)
+                .map(name -> name.startsWith(ROLE_PREFIX) ? name.substring(ROLE_PREFIX.length()) : name)
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
+}
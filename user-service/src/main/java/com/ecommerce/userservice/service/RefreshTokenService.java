@@ -0,0 +1,109 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.entity.RefreshToken;
+import com.ecommerce.userservice.entity.User;
+import com.ecommerce.userservice.exception.InvalidTokenException;
+import com.ecommerce.userservice.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Выдача и ротация refresh токенов
+ * В БД хранится только SHA-256 от токена. Каждый refresh токен одноразовый:
+ * повторное предъявление уже использованного токена отзывает всё семейство
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${jwt.refresh-expiration:2592000000}")
+    private long refreshExpiration;
+
+    @Transactional
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    @Transactional
+    public String issue(User user, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(token))
+                .familyId(familyId)
+                .user(user)
+                .expiresAt(LocalDateTime.now().plusNanos(refreshExpiration * 1_000_000))
+                .revoked(false)
+                .build());
+
+        return token;
+    }
+
+    /**
+     * Погашение refresh токена перед выдачей нового в том же семействе
+     * @return погашенный токен (с пользователем и семейством)
+     */
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public RefreshToken consume(String token) {
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(() -> new InvalidTokenException("Invalid refresh token"));
+
+        // Повторное использование - токен мог быть украден, отзываем всю цепочку
+        if (refreshToken.isRevoked() || refreshTokenRepository.revokeIfActive(refreshToken.getId()) == 0) {
+            int revoked = refreshTokenRepository.revokeFamily(refreshToken.getFamilyId());
+            log.warn("Refresh token reuse detected for user {}, revoked {} tokens in family {}",
+                    refreshToken.getUser().getId(), revoked, refreshToken.getFamilyId());
+            throw new InvalidTokenException("Refresh token has already been used");
+        }
+
+        if (refreshToken.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new InvalidTokenException("Refresh token has expired");
+        }
+
+        if (!refreshToken.getUser().isEnabled()) {
+            refreshTokenRepository.revokeFamily(refreshToken.getFamilyId());
+            throw new InvalidTokenException("User account is disabled");
+        }
+
+        return refreshToken;
+    }
+
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        refreshTokenRepository.deleteByUserId(userId);
+    }
+
+    @Transactional
+    public int deleteExpired() {
+        return refreshTokenRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    private String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
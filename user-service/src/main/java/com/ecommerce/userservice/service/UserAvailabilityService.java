@@ -0,0 +1,118 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.repository.UserIdentityRow;
+import com.ecommerce.userservice.repository.UserRepository;
+import com.ecommerce.userservice.util.BloomFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Проверка занятости username/email через Bloom filter в памяти
+ * Отрицательный ответ фильтра гарантирует, что значение свободно, и запрос в БД не нужен.
+ * В БД проверяются только возможные совпадения. Фильтр строится при старте потоковым
+ * чтением таблицы users и периодически перестраивается, чтобы учесть регистрации
+ * на других экземплярах сервиса и рост таблицы
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserAvailabilityService {
+
+    private final UserRepository userRepository;
+
+    @Value("${users.availability.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${users.availability.false-positive-probability:0.01}")
+    private double falsePositiveProbability;
+
+    private volatile Filters current;
+
+    private volatile Filters building;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${users.availability.rebuild-interval:600000}",
+            fixedDelayString = "${users.availability.rebuild-interval:600000}")
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        long startTime = System.currentTimeMillis();
+        long capacity = Math.max(expectedInsertions, userRepository.count() * 2);
+        Filters filters = new Filters(
+                new BloomFilter(capacity, falsePositiveProbability),
+                new BloomFilter(capacity, falsePositiveProbability));
+
+        // Регистрации во время перестроения попадают и в новый фильтр
+        building = filters;
+        long count = 0;
+        try (Stream<UserIdentityRow> rows = userRepository.streamAllIdentities()) {
+            for (UserIdentityRow row : (Iterable<UserIdentityRow>) rows::iterator) {
+                filters.usernames().put(normalize(row.getUsername()));
+                filters.emails().put(normalize(row.getEmail()));
+                count++;
+            }
+            // Сначала публикуем новый фильтр, потом перестаем дублировать в него записи:
+            // иначе регистрация между этими шагами не попала бы в новый фильтр
+            current = filters;
+        } finally {
+            building = null;
+        }
+
+        log.info("Availability filter rebuilt: users={}, bits={}, hashFunctions={}, took {} ms",
+                count, filters.usernames().getNumBits(), filters.usernames().getNumHashFunctions(),
+                System.currentTimeMillis() - startTime);
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isUsernameAvailable(String username) {
+        Filters filters = current;
+        if (filters != null && !filters.usernames().mightContain(normalize(username))) {
+            return true;
+        }
+        return !userRepository.existsByUsername(username);
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isEmailAvailable(String email) {
+        Filters filters = current;
+        if (filters != null && !filters.emails().mightContain(normalize(email))) {
+            return true;
+        }
+        return !userRepository.existsByEmail(email);
+    }
+
+    public void addUsername(String username) {
+        put(username, true);
+    }
+
+    public void addEmail(String email) {
+        put(email, false);
+    }
+
+    private void put(String value, boolean username) {
+        String normalized = normalize(value);
+        for (Filters filters : new Filters[]{current, building}) {
+            if (filters != null) {
+                (username ? filters.usernames() : filters.emails()).put(normalized);
+            }
+        }
+    }
+
+    /**
+     * Нормализация только расширяет множество совпадений, поэтому ложноотрицательных ответов нет
+     */
+    private String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Filters(BloomFilter usernames, BloomFilter emails) {
+    }
+}
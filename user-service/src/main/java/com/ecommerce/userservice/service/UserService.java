@@ -1,83 +1,95 @@
 package com.ecommerce.userservice.service;
 
 import com.ecommerce.userservice.dto.*;
+import com.ecommerce.userservice.entity.RefreshToken;
 import com.ecommerce.userservice.entity.Role;
 import com.ecommerce.userservice.entity.User;
+import com.ecommerce.userservice.exception.BadRequestException;
+import com.ecommerce.userservice.exception.InvalidTokenException;
 import com.ecommerce.userservice.exception.ResourceNotFoundException;
 import com.ecommerce.userservice.exception.UserAlreadyExistsException;
 import com.ecommerce.userservice.repository.RoleRepository;
+import com.ecommerce.userservice.repository.UserExportRow;
 import com.ecommerce.userservice.repository.UserRepository;
 import com.ecommerce.userservice.security.JwtTokenProvider;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
 
-import java.util.Collections;
-import java.util.List;
-import java.util.Set;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int EXPORT_FLUSH_INTERVAL = 100;
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider jwtTokenProvider;
+    private final RefreshTokenService refreshTokenService;
+    private final ObjectMapper objectMapper;
+    private final UserAvailabilityService userAvailabilityService;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
+    /**
+     * Пароль хешируется до транзакции: ожидание в очереди пула BCrypt не держит соединение с БД
+     */
     public AuthResponse register(RegisterRequest request) {
-        // Проверка на существование пользователя
-        if (userRepository.existsByUsername(request.getUsername())) {
+        // Проверка на существование пользователя (в БД идут только возможные совпадения фильтра)
+        if (!userAvailabilityService.isUsernameAvailable(request.getUsername())) {
             throw new UserAlreadyExistsException("Username is already taken: " + request.getUsername());
         }
 
-        if (userRepository.existsByEmail(request.getEmail())) {
+        if (!userAvailabilityService.isEmailAvailable(request.getEmail())) {
             throw new UserAlreadyExistsException("Email is already in use: " + request.getEmail());
         }
 
-        // Получить роль USER (создать если не существует)
-        Role userRole = roleRepository.findByName(Role.RoleName.ROLE_USER)
-                .orElseGet(() -> roleRepository.save(Role.builder()
-                        .name(Role.RoleName.ROLE_USER)
-                        .build()));
-
-        // Создать пользователя
-        User user = User.builder()
-                .username(request.getUsername())
-                .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
-                .firstName(request.getFirstName())
-                .lastName(request.getLastName())
-                .enabled(true)
-                .roles(Collections.singleton(userRole))
-                .build();
+        String encodedPassword = passwordEncoder.encode(request.getPassword());
 
-        user = userRepository.save(user);
+        return transactionTemplate.execute(status -> {
+            // Получить роль USER (создать если не существует)
+            Role userRole = roleRepository.findByName(Role.RoleName.ROLE_USER)
+                    .orElseGet(() -> roleRepository.save(Role.builder()
+                            .name(Role.RoleName.ROLE_USER)
+                            .build()));
 
-        // Генерация токена
-        String token = jwtTokenProvider.generateToken(user.getUsername());
+            // Создать пользователя
+            User user = User.builder()
+                    .username(request.getUsername())
+                    .email(request.getEmail())
+                    .password(encodedPassword)
+                    .firstName(request.getFirstName())
+                    .lastName(request.getLastName())
+                    .enabled(true)
+                    .roles(Collections.singleton(userRole))
+                    .build();
 
-        return AuthResponse.builder()
-                .accessToken(token)
-                .tokenType("Bearer")
-                .userId(user.getId())
-                .username(user.getUsername())
-                .email(user.getEmail())
-                .roles(user.getRoles().stream()
-                        .map(role -> role.getName().name())
-                        .collect(Collectors.toList()))
-                .build();
+            user = userRepository.save(user);
+            userAvailabilityService.addUsername(user.getUsername());
+            userAvailabilityService.addEmail(user.getEmail());
+
+            // Генерация токенов
+            return buildAuthResponse(user, refreshTokenService.issue(user));
+        });
     }
 
     public AuthResponse login(LoginRequest request) {
-        Authentication authentication = authenticationManager.authenticate(
+        authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         request.getUsername(),
                         request.getPassword()
@@ -87,18 +99,18 @@ public class UserService {
         User user = userRepository.findByUsername(request.getUsername())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        String token = jwtTokenProvider.generateToken(authentication);
+        return buildAuthResponse(user, refreshTokenService.issue(user));
+    }
 
-        return AuthResponse.builder()
-                .accessToken(token)
-                .tokenType("Bearer")
-                .userId(user.getId())
-                .username(user.getUsername())
-                .email(user.getEmail())
-                .roles(user.getRoles().stream()
-                        .map(role -> role.getName().name())
-                        .collect(Collectors.toList()))
-                .build();
+    /**
+     * Ротация: старый refresh токен гасится, новый выдается в том же семействе
+     */
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public AuthResponse refreshToken(RefreshTokenRequest request) {
+        RefreshToken consumed = refreshTokenService.consume(request.getRefreshToken());
+        User user = consumed.getUser();
+
+        return buildAuthResponse(user, refreshTokenService.issue(user, consumed.getFamilyId()));
     }
 
     @Transactional(readOnly = true)
@@ -117,40 +129,137 @@ public class UserService {
         return mapToUserResponse(user);
     }
 
-    @Transactional(readOnly = true)
-    public List<UserResponse> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::mapToUserResponse)
-                .collect(Collectors.toList());
+    public AvailabilityResponse checkAvailability(String username, String email) {
+        if (username == null && email == null) {
+            throw new BadRequestException("Either username or email must be provided");
+        }
+
+        return AvailabilityResponse.builder()
+                .username(username)
+                .usernameAvailable(username != null ? userAvailabilityService.isUsernameAvailable(username) : null)
+                .email(email)
+                .emailAvailable(email != null ? userAvailabilityService.isEmailAvailable(email) : null)
+                .build();
     }
 
-    @Transactional
-    public UserResponse updateUser(Long id, UpdateUserRequest request) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+    /**
+     * Пакетное получение пользователей одним IN запросом с ролями через join
+     * Несуществующие id пропускаются
+     */
+    @Transactional(readOnly = true)
+    public List<UserSummaryResponse> getUsersByIds(List<Long> ids) {
+        Set<Long> uniqueIds = ids.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
 
-        if (request.getEmail() != null && !request.getEmail().equals(user.getEmail())) {
-            if (userRepository.existsByEmail(request.getEmail())) {
-                throw new UserAlreadyExistsException("Email is already in use: " + request.getEmail());
-            }
-            user.setEmail(request.getEmail());
+        if (uniqueIds.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Batch size must not exceed " + MAX_BATCH_SIZE + " ids");
         }
-
-        if (request.getFirstName() != null) {
-            user.setFirstName(request.getFirstName());
+        if (uniqueIds.isEmpty()) {
+            return List.of();
         }
 
-        if (request.getLastName() != null) {
-            user.setLastName(request.getLastName());
+        return userRepository.findWithRolesByIdIn(uniqueIds).stream()
+                .map(this::mapToUserSummaryResponse)
+                .toList();
+    }
+
+    /**
+     * Keyset (seek) пагинация по id: стоимость страницы не зависит от ее номера
+     */
+    @Transactional(readOnly = true)
+    public UserPageResponse getUsers(Long afterId, int size) {
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+
+        // Запрашиваем на один id больше, чтобы узнать, есть ли следующая страница
+        List<Long> ids = userRepository.findIdsAfter(afterId != null ? afterId : 0L, Limit.of(pageSize + 1));
+        boolean hasNext = ids.size() > pageSize;
+        if (hasNext) {
+            ids = ids.subList(0, pageSize);
         }
 
-        if (request.getPassword() != null) {
-            user.setPassword(passwordEncoder.encode(request.getPassword()));
+        List<UserResponse> content = ids.isEmpty()
+                ? List.of()
+                : userRepository.findWithRolesByIdIn(ids).stream()
+                        .map(this::mapToUserResponse)
+                        .toList();
+
+        return UserPageResponse.builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextCursor(content.isEmpty() ? null : content.getLast().getId())
+                .build();
+    }
+
+    /**
+     * Выгрузка всех пользователей в NDJSON через серверный курсор
+     * Память не зависит от размера таблицы: в каждый момент собирается только текущий пользователь
+     */
+    @Transactional(readOnly = true)
+    public void exportUsers(OutputStream outputStream) throws IOException {
+        try (Stream<UserExportRow> rows = userRepository.streamAllForExport()) {
+            Iterator<UserExportRow> iterator = rows.iterator();
+            UserResponse current = null;
+            long written = 0;
+
+            while (iterator.hasNext()) {
+                UserExportRow row = iterator.next();
+                if (current == null || !current.getId().equals(row.getId())) {
+                    if (current != null) {
+                        writeNdjsonLine(outputStream, current);
+                        if (++written % EXPORT_FLUSH_INTERVAL == 0) {
+                            outputStream.flush();
+                        }
+                    }
+                    current = mapToUserResponse(row);
+                }
+                if (row.getRole() != null) {
+                    current.getRoles().add(row.getRole().name());
+                }
+            }
+
+            if (current != null) {
+                writeNdjsonLine(outputStream, current);
+            }
+            outputStream.flush();
         }
+    }
 
-        user = userRepository.save(user);
+    /**
+     * Как и при регистрации, новый пароль хешируется до транзакции
+     */
+    public UserResponse updateUser(Long id, UpdateUserRequest request) {
+        String encodedPassword = request.getPassword() != null ? passwordEncoder.encode(request.getPassword()) : null;
 
-        return mapToUserResponse(user);
+        return transactionTemplate.execute(status -> {
+            User user = userRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+
+            if (request.getEmail() != null && !request.getEmail().equals(user.getEmail())) {
+                if (!userAvailabilityService.isEmailAvailable(request.getEmail())) {
+                    throw new UserAlreadyExistsException("Email is already in use: " + request.getEmail());
+                }
+                user.setEmail(request.getEmail());
+                userAvailabilityService.addEmail(request.getEmail());
+            }
+
+            if (request.getFirstName() != null) {
+                user.setFirstName(request.getFirstName());
+            }
+
+            if (request.getLastName() != null) {
+                user.setLastName(request.getLastName());
+            }
+
+            if (request.getPassword() != null) {
+                user.setPassword(encodedPassword);
+            }
+
+            user = userRepository.save(user);
+
+            return mapToUserResponse(user);
+        });
     }
 
     @Transactional
@@ -158,9 +267,57 @@ public class UserService {
         if (!userRepository.existsById(id)) {
             throw new ResourceNotFoundException("User not found with id: " + id);
         }
+        refreshTokenService.revokeAllForUser(id);
         userRepository.deleteById(id);
     }
 
+    private AuthResponse buildAuthResponse(User user, String refreshToken) {
+        return AuthResponse.builder()
+                .accessToken(jwtTokenProvider.generateToken(user))
+                .refreshToken(refreshToken)
+                .tokenType("Bearer")
+                .expiresIn(jwtTokenProvider.getExpirationSeconds())
+                .userId(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .roles(user.getRoles().stream()
+                        .map(role -> role.getName().name())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private void writeNdjsonLine(OutputStream outputStream, UserResponse user) throws IOException {
+        outputStream.write(objectMapper.writeValueAsBytes(user));
+        outputStream.write('\n');
+    }
+
+    private UserResponse mapToUserResponse(UserExportRow row) {
+        return UserResponse.builder()
+                .id(row.getId())
+                .username(row.getUsername())
+                .email(row.getEmail())
+                .firstName(row.getFirstName())
+                .lastName(row.getLastName())
+                .enabled(row.isEnabled())
+                .roles(new HashSet<>())
+                .createdAt(row.getCreatedAt())
+                .updatedAt(row.getUpdatedAt())
+                .build();
+    }
+
+    private UserSummaryResponse mapToUserSummaryResponse(User user) {
+        return UserSummaryResponse.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .roles(user.getRoles().stream()
+                        .map(role -> role.getName().name())
+                        .collect(Collectors.toSet()))
+                .build();
+    }
+
     private UserResponse mapToUserResponse(User user) {
         Set<String> roles = user.getRoles().stream()
                 .map(role -> role.getName().name())
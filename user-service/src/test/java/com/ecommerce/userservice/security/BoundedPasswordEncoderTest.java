@@ -0,0 +1,99 @@
+package com.ecommerce.userservice.security;
+
+import com.ecommerce.userservice.exception.ServiceOverloadedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        if (encoder != null) {
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    void encodeAndMatches_ValidPassword_ReturnsTrue() {
+        encoder = new BoundedPasswordEncoder(4, 1, 4, 5000);
+
+        String hash = encoder.encode("secret123");
+
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertTrue(encoder.matches("secret123", hash));
+        assertFalse(encoder.matches("wrong", hash));
+    }
+
+    @Test
+    void upgradeEncoding_DifferentCost_ReturnsTrue() {
+        encoder = new BoundedPasswordEncoder(5, 1, 4, 5000);
+        BoundedPasswordEncoder weaker = new BoundedPasswordEncoder(4, 1, 4, 5000);
+        BoundedPasswordEncoder stronger = new BoundedPasswordEncoder(6, 1, 4, 5000);
+
+        try {
+            assertTrue(encoder.upgradeEncoding(weaker.encode("secret123")));
+            assertTrue(encoder.upgradeEncoding(stronger.encode("secret123")));
+            assertFalse(encoder.upgradeEncoding(encoder.encode("secret123")));
+            assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+        } finally {
+            weaker.destroy();
+            stronger.destroy();
+        }
+    }
+
+    @Test
+    void encode_QueueFull_ThrowsServiceOverloaded() throws Exception {
+        encoder = new BoundedPasswordEncoder(4, 1, 1, 5000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Занимаем единственный поток пула и единственное место в очереди
+        CharSequence blockingPassword = new CharSequence() {
+            @Override
+            public int length() {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "blocking".length();
+            }
+
+            @Override
+            public char charAt(int index) {
+                return "blocking".charAt(index);
+            }
+
+            @Override
+            public CharSequence subSequence(int start, int end) {
+                return "blocking".subSequence(start, end);
+            }
+
+            @Override
+            public String toString() {
+                length();
+                return "blocking";
+            }
+        };
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode(blockingPassword));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("queued"));
+        Thread.sleep(100);
+
+        assertThrows(ServiceOverloadedException.class, () -> encoder.encode("rejected"));
+
+        release.countDown();
+        assertNotNull(running.get(5, TimeUnit.SECONDS));
+        assertNotNull(queued.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,60 @@
+package com.ecommerce.userservice.security;
+
+import com.ecommerce.userservice.entity.Role;
+import com.ecommerce.userservice.entity.User;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenProviderTest {
+
+    private JwtTokenProvider jwtTokenProvider;
+
+    private static final String TEST_SECRET = "testSecretKeyForJWTTokenGenerationAndValidation2025VeryLongSecretKeyForTesting";
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", TEST_SECRET);
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpiration", 60_000L);
+        jwtTokenProvider.init();
+    }
+
+    @Test
+    void generateToken_ContainsUserIdRolesEmailAndJti() {
+        User user = User.builder()
+                .id(42L)
+                .username("john")
+                .email("john@example.com")
+                .roles(Set.of(
+                        Role.builder().name(Role.RoleName.ROLE_USER).build(),
+                        Role.builder().name(Role.RoleName.ROLE_ADMIN).build()))
+                .build();
+
+        String token = jwtTokenProvider.generateToken(user);
+        Claims claims = jwtTokenProvider.getValidClaims(token);
+
+        assertNotNull(claims);
+        assertEquals("john", claims.getSubject());
+        assertEquals(42L, claims.get(JwtTokenProvider.CLAIM_USER_ID, Long.class));
+        assertEquals("ADMIN,USER", claims.get(JwtTokenProvider.CLAIM_ROLES, String.class));
+        assertEquals("john@example.com", claims.get(JwtTokenProvider.CLAIM_EMAIL, String.class));
+        assertNotNull(claims.getId());
+        assertEquals(Set.of("ROLE_ADMIN", "ROLE_USER"), Set.copyOf(jwtTokenProvider.getAuthoritiesFromClaims(claims)
+                .stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList()));
+    }
+
+    @Test
+    void validateToken_InvalidToken_ReturnsFalse() {
+        assertFalse(jwtTokenProvider.validateToken("invalid.jwt.token"));
+        assertNull(jwtTokenProvider.getValidClaims(""));
+    }
+}
@@ -0,0 +1,77 @@
+package com.ecommerce.userservice.security;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Пропускная способность проверки пароля при входе в зависимости от cost BCrypt
+ * Запуск: ./gradlew :user-service:benchmark
+ */
+@Tag("benchmark")
+class PasswordHashingBenchmark {
+
+    private static final int MIN_STRENGTH = 8;
+    private static final int MAX_STRENGTH = 13;
+    private static final long MEASURE_MILLIS = 3000;
+
+    @Test
+    void loginThroughputByCostFactor() throws Exception {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        int clients = cpus * 4;
+
+        System.out.printf("%-8s %-12s %-12s %-10s%n", "cost", "logins/s", "avg ms", "rejected");
+
+        for (int strength = MIN_STRENGTH; strength <= MAX_STRENGTH; strength++) {
+            BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(strength, cpus, cpus * 2, 30_000);
+            ExecutorService requestThreads = Executors.newFixedThreadPool(clients);
+            try {
+                String hash = encoder.encode("password123");
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MEASURE_MILLIS);
+
+                List<Future<long[]>> results = new ArrayList<>();
+                for (int i = 0; i < clients; i++) {
+                    results.add(requestThreads.submit(() -> {
+                        long logins = 0;
+                        long rejected = 0;
+                        while (System.nanoTime() < deadline) {
+                            try {
+                                if (encoder.matches("password123", hash)) {
+                                    logins++;
+                                }
+                            } catch (RuntimeException ex) {
+                                rejected++;
+                            }
+                        }
+                        return new long[]{logins, rejected};
+                    }));
+                }
+
+                long logins = 0;
+                long rejected = 0;
+                for (Future<long[]> result : results) {
+                    long[] counts = result.get();
+                    logins += counts[0];
+                    rejected += counts[1];
+                }
+
+                double perSecond = logins * 1000.0 / MEASURE_MILLIS;
+                double avgMillis = logins > 0 ? (double) MEASURE_MILLIS * cpus / logins : Double.NaN;
+                System.out.printf("%-8d %-12.1f %-12.2f %-10d%n", strength, perSecond, avgMillis, rejected);
+
+                assertTrue(logins > 0, "No successful logins for cost " + strength);
+            } finally {
+                requestThreads.shutdownNow();
+                encoder.destroy();
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.dto.AuthResponse;
+import com.ecommerce.userservice.dto.RefreshTokenRequest;
+import com.ecommerce.userservice.dto.RegisterRequest;
+import com.ecommerce.userservice.exception.InvalidTokenException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RefreshTokenServiceTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void refreshToken_RotatesAndDetectsReuse() {
+        AuthResponse registered = userService.register(RegisterRequest.builder()
+                .username("refresh-user")
+                .email("refresh-user@example.com")
+                .password("password123")
+                .build());
+        assertNotNull(registered.getRefreshToken());
+
+        AuthResponse rotated = userService.refreshToken(new RefreshTokenRequest(registered.getRefreshToken()));
+        assertNotNull(rotated.getAccessToken());
+        assertNotEquals(registered.getRefreshToken(), rotated.getRefreshToken());
+        assertEquals(registered.getUserId(), rotated.getUserId());
+
+        // Повторное использование погашенного токена отзывает всё семейство
+        assertThrows(InvalidTokenException.class,
+                () -> userService.refreshToken(new RefreshTokenRequest(registered.getRefreshToken())));
+        assertThrows(InvalidTokenException.class,
+                () -> userService.refreshToken(new RefreshTokenRequest(rotated.getRefreshToken())));
+    }
+
+    @Test
+    void refreshToken_UnknownToken_ThrowsInvalidToken() {
+        assertThrows(InvalidTokenException.class,
+                () -> userService.refreshToken(new RefreshTokenRequest("unknown-token")));
+    }
+}
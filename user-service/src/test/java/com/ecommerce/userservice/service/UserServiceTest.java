@@ -0,0 +1,205 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.dto.AvailabilityResponse;
+import com.ecommerce.userservice.dto.RegisterRequest;
+import com.ecommerce.userservice.dto.UserPageResponse;
+import com.ecommerce.userservice.dto.UserResponse;
+import com.ecommerce.userservice.dto.UserSummaryResponse;
+import com.ecommerce.userservice.entity.User;
+import com.ecommerce.userservice.exception.BadRequestException;
+import com.ecommerce.userservice.exception.ErrorResponse;
+import com.ecommerce.userservice.exception.GlobalExceptionHandler;
+import com.ecommerce.userservice.exception.ServiceOverloadedException;
+import com.ecommerce.userservice.exception.UserAlreadyExistsException;
+import com.ecommerce.userservice.repository.UserRepository;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserServiceTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void getUsers_KeysetPages_CoverAllUsersOnce() {
+        for (int i = 0; i < 5; i++) {
+            userService.register(RegisterRequest.builder()
+                    .username("page-user-" + i)
+                    .email("page-user-" + i + "@example.com")
+                    .password("password123")
+                    .build());
+        }
+
+        List<Long> seen = new ArrayList<>();
+        Long cursor = null;
+        UserPageResponse page;
+        do {
+            page = userService.getUsers(cursor, 2);
+            assertTrue(page.getSize() <= 2);
+            page.getContent().forEach(user -> {
+                assertFalse(user.getRoles().isEmpty());
+                seen.add(user.getId());
+            });
+            cursor = page.getNextCursor();
+        } while (page.isHasNext());
+
+        assertEquals(userRepository.count(), seen.size());
+        assertEquals(seen.stream().sorted().toList(), seen);
+    }
+
+    @Test
+    void exportUsers_WritesOneJsonLinePerUser() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        userService.exportUsers(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(userRepository.count(), lines.length);
+
+        UserResponse admin = userService.getUserByUsername("admin");
+        String adminLine = List.of(lines).stream()
+                .filter(line -> line.contains("\"username\":\"admin\""))
+                .findFirst()
+                .orElseThrow();
+        admin.getRoles().forEach(role -> assertTrue(adminLine.contains(role)));
+    }
+
+    @Test
+    void getUsersByIds_SkipsMissingAndDuplicateIds() {
+        UserResponse admin = userService.getUserByUsername("admin");
+        UserResponse user = userService.getUserByUsername("user");
+
+        List<UserSummaryResponse> result = userService.getUsersByIds(
+                List.of(admin.getId(), user.getId(), admin.getId(), Long.MAX_VALUE));
+
+        assertEquals(2, result.size());
+        UserSummaryResponse adminSummary = result.stream()
+                .filter(summary -> summary.getId().equals(admin.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("admin@example.com", adminSummary.getEmail());
+        assertEquals(admin.getRoles(), adminSummary.getRoles());
+    }
+
+    @Test
+    void getUsersByIds_TooManyIds_ThrowsBadRequest() {
+        List<Long> ids = LongStream.rangeClosed(1, 501).boxed().toList();
+
+        assertThrows(BadRequestException.class, () -> userService.getUsersByIds(ids));
+    }
+
+    @Test
+    void checkAvailability_ReflectsExistingAndNewlyRegisteredUsers() {
+        AvailabilityResponse existing = userService.checkAvailability("ADMIN", "admin@example.com");
+        assertFalse(existing.getEmailAvailable());
+        // username уникален с учетом регистра, фильтр лишь отправляет проверку в БД
+        assertTrue(existing.getUsernameAvailable());
+
+        assertTrue(userService.checkAvailability("fresh-user", null).getUsernameAvailable());
+
+        userService.register(RegisterRequest.builder()
+                .username("fresh-user")
+                .email("fresh-user@example.com")
+                .password("password123")
+                .build());
+
+        AvailabilityResponse taken = userService.checkAvailability("fresh-user", "fresh-user@example.com");
+        assertFalse(taken.getUsernameAvailable());
+        assertFalse(taken.getEmailAvailable());
+        assertThrows(UserAlreadyExistsException.class, () -> userService.register(RegisterRequest.builder()
+                .username("fresh-user")
+                .email("another@example.com")
+                .password("password123")
+                .build()));
+    }
+
+    @Test
+    void handleDataIntegrityViolation_OnlyUsernameAndEmailConstraintsAreConflicts() {
+        GlobalExceptionHandler handler = new GlobalExceptionHandler();
+        User existing = userRepository.saveAndFlush(user("race-user", "race-user@example.com"));
+
+        DataIntegrityViolationException sameUsername = assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(user("race-user", "race-other@example.com")));
+        ResponseEntity<ErrorResponse> usernameResponse = handler.handleDataIntegrityViolationException(sameUsername);
+        assertEquals(HttpStatus.CONFLICT, usernameResponse.getStatusCode());
+        assertEquals("Username is already taken", usernameResponse.getBody().getMessage());
+
+        DataIntegrityViolationException sameEmail = assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(user("race-other", "race-user@example.com")));
+        assertEquals("Email is already in use", handler.handleDataIntegrityViolationException(sameEmail).getBody().getMessage());
+
+        DataIntegrityViolationException missingPassword = assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(User.builder().username("race-null").email("race-null@example.com").build()));
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,
+                handler.handleDataIntegrityViolationException(missingPassword).getStatusCode());
+
+        userRepository.delete(existing);
+    }
+
+    @Test
+    void handleDataIntegrityViolation_LegacyConstraintNamesAreConflicts() {
+        GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+        ResponseEntity<ErrorResponse> username = handler.handleDataIntegrityViolationException(
+                legacyViolation("Key (username)=(john) already exists."));
+        assertEquals(HttpStatus.CONFLICT, username.getStatusCode());
+        assertEquals("Username is already taken", username.getBody().getMessage());
+
+        ResponseEntity<ErrorResponse> email = handler.handleDataIntegrityViolationException(
+                legacyViolation("Key (email)=(john@example.com) already exists."));
+        assertEquals("Email is already in use", email.getBody().getMessage());
+    }
+
+    @Test
+    void handleInternalAuthenticationServiceException_Overloaded_Returns503() {
+        GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+        ResponseEntity<ErrorResponse> overloaded = handler.handleInternalAuthenticationServiceException(
+                new InternalAuthenticationServiceException("busy", new ServiceOverloadedException("busy")));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, overloaded.getStatusCode());
+        assertEquals("1", overloaded.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        ResponseEntity<ErrorResponse> other = handler.handleInternalAuthenticationServiceException(
+                new InternalAuthenticationServiceException("broken", new IllegalStateException("broken")));
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, other.getStatusCode());
+    }
+
+    private static DataIntegrityViolationException legacyViolation(String detail) {
+        String constraint = "uk6dotkott2kjsp8vw4d0m25fb7";
+        SQLException sqlException = new SQLException(
+                "ERROR: duplicate key value violates unique constraint \"" + constraint + "\"\n  Detail: " + detail,
+                "23505");
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", sqlException, constraint));
+    }
+
+    private static User user(String username, String email) {
+        return User.builder()
+                .username(username)
+                .email(email)
+                .password("hash")
+                .build();
+    }
+}